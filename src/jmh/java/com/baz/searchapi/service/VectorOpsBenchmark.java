@@ -0,0 +1,84 @@
+package com.baz.searchapi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs SIMD kernels on embedding-shaped data: mean pooling and normalising one
+ * [seq_len, 384] hidden-state row, and scoring a query against a block of stored vectors.
+ *
+ * <p>Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=VectorOpsBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorOpsBenchmark {
+
+    private static final int DIM = 384;
+
+    @Param({"scalar", "simd"})
+    public String kernels;
+
+    @Param({"16", "128"})
+    public int seqLen;
+
+    private VectorOps ops;
+    private float[][] tokens;
+    private float[] query;
+    private float[][] stored;
+
+    @Setup
+    public void setUp() {
+        ops = kernels.equals("simd") ? VectorOps.select(true) : new ScalarVectorOps();
+        if (kernels.equals("simd") && !ops.isSimd()) {
+            throw new IllegalStateException("Vector API not available to the benchmark JVM");
+        }
+        Random random = new Random(42);
+        tokens = new float[seqLen][DIM];
+        for (float[] token : tokens) fill(token, random);
+        query = new float[DIM];
+        fill(query, random);
+        stored = new float[1000][DIM];
+        for (float[] v : stored) fill(v, random);
+    }
+
+    @Benchmark
+    public float[] meanPoolAndNormalize() {
+        float[] sum = new float[DIM];
+        for (float[] token : tokens) {
+            ops.add(sum, token);
+        }
+        ops.divide(sum, tokens.length);
+        return ops.normalize(sum);
+    }
+
+    @Benchmark
+    public float dotAgainstThousandVectors() {
+        float best = Float.NEGATIVE_INFINITY;
+        for (float[] v : stored) {
+            best = Math.max(best, ops.dot(query, v));
+        }
+        return best;
+    }
+
+    private static void fill(float[] v, Random random) {
+        for (int i = 0; i < v.length; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.baz.searchapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class IngestionExecutorConfig {
+
+    /**
+     * Fixed pool of workers for asynchronous ingestion. The queue is sized to
+     * ingestion.max-pending, which IngestionService also enforces up front, so submissions
+     * are refused with 503 before a document is written rather than rejected here afterwards.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ingestionExecutor(@Value("${ingestion.workers:2}") int workers,
+                                                    @Value("${ingestion.max-pending:100}") int maxPending) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(maxPending);
+        executor.setThreadNamePrefix("ingest-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Single thread for IngestionService's periodic sweep of jobs whose worker lease has
+     * expired. Separate from the worker pool so a full queue never delays the sweep itself.
+     */
+    @Bean
+    public ThreadPoolTaskScheduler ingestionScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ingest-sweep-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,34 @@
+package com.baz.searchapi.config;
+
+import com.pgvector.PGvector;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds float[] embeddings as pgvector {@code vector} parameters in binary wire format.
+ *
+ * <p>PgJDBC only sends a {@link org.postgresql.util.PGBinaryObject} in binary once its type has
+ * been registered on the physical connection via {@link PGConnection#addDataType}. Registration
+ * is a cheap, idempotent cache update, so it is simply repeated on every bind rather than tracked
+ * per pooled connection. The 384 floats then travel as 1,540 raw bytes instead of a ~3-4 KB
+ * decimal string that both sides would otherwise have to format and parse.
+ *
+ * <p>Chunk embeddings are stored as {@code halfvec}, which the JDBC driver has no binary codec
+ * for. Statements bind a {@code vector} and cast it with {@code ?::halfvec(384)} instead.
+ */
+public final class PgVectorBinding {
+
+    private PgVectorBinding() {}
+
+    public static void bind(PreparedStatement statement, int index, float[] embedding) throws SQLException {
+        enableBinaryTransfer(statement.getConnection());
+        statement.setObject(index, new PGvector(embedding));
+    }
+
+    public static void enableBinaryTransfer(Connection connection) throws SQLException {
+        connection.unwrap(PGConnection.class).addDataType("vector", PGvector.class);
+    }
+}
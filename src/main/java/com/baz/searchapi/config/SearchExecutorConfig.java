@@ -0,0 +1,32 @@
+package com.baz.searchapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SearchExecutorConfig {
+
+    /**
+     * Executor for the independent legs of a search request (client search, semantic and keyword
+     * document search). Each leg spends nearly all of its time blocked on JDBC or on the embedding
+     * batcher, so a virtual thread per task keeps the fan-out cheap without sizing a pool.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService searchExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-", 0).factory());
+    }
+
+    /**
+     * CPU-bound slices of an exact vector scan (FlatVectorStore). Platform threads sized to the
+     * cores, since the work never blocks. vector-index.flat.scan-threads <= 0 means one per core.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService vectorScanExecutor(@Value("${vector-index.flat.scan-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(size, Thread.ofPlatform().name("vector-scan-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,30 @@
+package com.baz.searchapi.config;
+
+import com.baz.searchapi.service.VectorOps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class VectorOpsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorOpsConfig.class);
+
+    /**
+     * SIMD float kernels when vector.simd.enabled and the JVM has jdk.incubator.vector,
+     * otherwise the scalar loops. A missing module is logged rather than failing startup.
+     */
+    @Bean
+    public VectorOps vectorOps(@Value("${vector.simd.enabled:true}") boolean simdEnabled) {
+        VectorOps ops = VectorOps.select(simdEnabled);
+        if (simdEnabled && !ops.isSimd()) {
+            log.warn("vector.simd.enabled is set but jdk.incubator.vector is not available "
+                    + "(start the JVM with --add-modules jdk.incubator.vector); using scalar kernels");
+        } else {
+            log.info("Using {} vector kernels", ops.isSimd() ? "SIMD" : "scalar");
+        }
+        return ops;
+    }
+}
@@ -0,0 +1,79 @@
+package com.baz.searchapi.config;
+
+import com.pgvector.PGvector;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Maps a float[] attribute to a pgvector {@code vector} column using the binary wire format.
+ * Values read back from connections without the binary type registered arrive as a text
+ * PGobject and are parsed instead. A {@code halfvec} column uses the same mapping with casts
+ * to and from {@code vector} in the SQL, so fp16 conversion happens in Postgres.
+ */
+public class VectorType implements UserType<float[]> {
+
+    @Override
+    public int getSqlType() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Class<float[]> returnedClass() {
+        return float[].class;
+    }
+
+    @Override
+    public float[] nullSafeGet(ResultSet rs, int position, WrapperOptions options) throws SQLException {
+        Object value = rs.getObject(position);
+        if (value == null) return null;
+        if (value instanceof PGvector vector) return vector.toArray();
+        return new PGvector(value.toString()).toArray();
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, float[] value, int index, WrapperOptions options)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+        } else {
+            PgVectorBinding.bind(st, index, value);
+        }
+    }
+
+    @Override
+    public boolean equals(float[] x, float[] y) {
+        return Arrays.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(float[] x) {
+        return Arrays.hashCode(x);
+    }
+
+    @Override
+    public float[] deepCopy(float[] value) {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(float[] value) {
+        return deepCopy(value);
+    }
+
+    @Override
+    public float[] assemble(Serializable cached, Object owner) {
+        return deepCopy((float[]) cached);
+    }
+}
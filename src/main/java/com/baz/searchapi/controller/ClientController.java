@@ -48,4 +48,13 @@ public class ClientController {
                                            @Valid @RequestBody DocumentRequest request) {
         return documentService.createDocument(id, request);
     }
+
+    @GetMapping("/documents/{id}")
+    @Operation(summary = "Get a document with its full content",
+            description = "Snippet search results omit document bodies; this returns the whole document.")
+    @ApiResponse(responseCode = "200", description = "The document")
+    @ApiResponse(responseCode = "404", description = "Document not found")
+    public DocumentResponse getDocument(@PathVariable UUID id) {
+        return documentService.getDocument(id);
+    }
 }
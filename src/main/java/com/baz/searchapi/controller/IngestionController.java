@@ -0,0 +1,68 @@
+package com.baz.searchapi.controller;
+
+import com.baz.searchapi.model.dto.BulkImportResponse;
+import com.baz.searchapi.model.dto.DocumentRequest;
+import com.baz.searchapi.model.dto.IngestionJobResponse;
+import com.baz.searchapi.service.BulkImportService;
+import com.baz.searchapi.service.IngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@Tag(name = "Ingestion", description = "Asynchronous document ingestion")
+public class IngestionController {
+
+    private final IngestionService ingestionService;
+    private final BulkImportService bulkImportService;
+
+    public IngestionController(IngestionService ingestionService, BulkImportService bulkImportService) {
+        this.ingestionService = ingestionService;
+        this.bulkImportService = bulkImportService;
+    }
+
+    @PostMapping(value = "/clients/{id}/documents", params = "async=true")
+    @Operation(summary = "Add a document to a client, chunking and embedding it in the background",
+            description = "Stores the document and returns immediately with an ingestion job. "
+                    + "The document becomes searchable once the job is COMPLETED.")
+    @ApiResponse(responseCode = "202", description = "Document stored, ingestion job queued")
+    @ApiResponse(responseCode = "400", description = "Validation error")
+    @ApiResponse(responseCode = "404", description = "Client not found")
+    @ApiResponse(responseCode = "409", description = "Duplicate document title for this client")
+    @ApiResponse(responseCode = "503", description = "Ingestion queue is full")
+    public ResponseEntity<IngestionJobResponse> createDocumentAsync(@PathVariable UUID id,
+                                                                    @Valid @RequestBody DocumentRequest request) {
+        IngestionJobResponse job = ingestionService.submit(id, request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/ingestion-jobs/" + job.id()))
+                .body(job);
+    }
+
+    @PostMapping(value = "/clients/{id}/documents/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import many documents for a client from an NDJSON body",
+            description = "One {\"title\", \"content\"} object per line. Items are validated, embedded "
+                    + "and committed in groups; each item gets its own result, and a failed item "
+                    + "does not abort the rest of the import.")
+    @ApiResponse(responseCode = "200", description = "Per-item import results")
+    @ApiResponse(responseCode = "404", description = "Client not found")
+    public BulkImportResponse importDocuments(@PathVariable UUID id, InputStream body) throws IOException {
+        return bulkImportService.importDocuments(id, body);
+    }
+
+    @GetMapping("/ingestion-jobs/{id}")
+    @Operation(summary = "Get the status of an ingestion job")
+    @ApiResponse(responseCode = "200", description = "Job status")
+    @ApiResponse(responseCode = "404", description = "Ingestion job not found")
+    public IngestionJobResponse getJob(@PathVariable UUID id) {
+        return ingestionService.getJob(id);
+    }
+}
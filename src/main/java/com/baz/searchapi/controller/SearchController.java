@@ -1,6 +1,8 @@
 package com.baz.searchapi.controller;
 
 import com.baz.searchapi.model.dto.SearchResultItem;
+import com.baz.searchapi.service.ResultContent;
+import com.baz.searchapi.service.SearchEffort;
 import com.baz.searchapi.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,16 +10,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @Tag(name = "Search", description = "Semantic search across clients and documents")
 public class SearchController {
 
+    static final int MAX_LIMIT  = 100;
+    /** Deepest result reachable by paging; each page fetches offset + limit candidates per leg. */
+    static final int MAX_WINDOW = 1000;
+
     private final SearchService searchService;
 
     public SearchController(SearchService searchService) {
@@ -27,16 +35,93 @@ public class SearchController {
     @GetMapping("/search")
     @Operation(summary = "Search across clients and documents",
             description = "Clients are matched by substring on name/email/description. "
-                    + "Documents are matched by keyword and semantic similarity using embeddings.")
+                    + "Documents are matched by keyword and semantic similarity using embeddings. "
+                    + "Results are clients then documents, each best first, paged with limit/offset.")
     @ApiResponse(responseCode = "200", description = "Search results")
-    @ApiResponse(responseCode = "400", description = "Missing or blank query")
+    @ApiResponse(responseCode = "400", description = "Missing or blank query, or invalid paging, effort or content parameters")
     public List<SearchResultItem> search(
             @Parameter(description = "Search query", example = "address proof")
-            @RequestParam String q) {
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (1-" + MAX_LIMIT + ")")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Number of results to skip")
+            @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Semantic search effort: fast, balanced, thorough, or adaptive "
+                    + "(starts fast and deepens while fewer than limit documents are found)")
+            @RequestParam(defaultValue = "balanced") String effort,
+            @Parameter(description = "Overrides the effort's HNSW ef_search (1-" + SearchEffort.MAX_EF_SEARCH + ")")
+            @RequestParam(name = "ef_search", required = false) Integer efSearch,
+            @Parameter(description = "Overrides the effort's number of nearest chunks considered (1-"
+                    + SearchEffort.MAX_CANDIDATES + ")")
+            @RequestParam(required = false) Integer candidates,
+            @Parameter(description = "Document result body: full (the whole content) or snippet (the "
+                    + "best-matching chunk with its byte offsets; fetch the body from /documents/{id})")
+            @RequestParam(defaultValue = "full") String content) {
+        validate(q, limit, offset);
+        return searchService.search(q.trim(), limit, offset, effort(effort, efSearch, candidates),
+                content(content));
+    }
+
+    @GetMapping("/clients/{id}/search")
+    @Operation(summary = "Search one client's documents",
+            description = "Documents are matched by keyword and semantic similarity using embeddings, "
+                    + "considering only this client's documents. Results are best first, paged with "
+                    + "limit/offset.")
+    @ApiResponse(responseCode = "200", description = "Search results")
+    @ApiResponse(responseCode = "400", description = "Missing or blank query, or invalid paging, effort or content parameters")
+    @ApiResponse(responseCode = "404", description = "Client not found")
+    public List<SearchResultItem> searchClient(
+            @PathVariable UUID id,
+            @Parameter(description = "Search query", example = "address proof")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (1-" + MAX_LIMIT + ")")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Number of results to skip")
+            @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Semantic search effort: fast, balanced, thorough, or adaptive "
+                    + "(starts fast and deepens while fewer than limit documents are found)")
+            @RequestParam(defaultValue = "balanced") String effort,
+            @Parameter(description = "Overrides the effort's HNSW ef_search (1-" + SearchEffort.MAX_EF_SEARCH + ")")
+            @RequestParam(name = "ef_search", required = false) Integer efSearch,
+            @Parameter(description = "Overrides the effort's number of nearest chunks considered (1-"
+                    + SearchEffort.MAX_CANDIDATES + ")")
+            @RequestParam(required = false) Integer candidates,
+            @Parameter(description = "Document result body: full (the whole content) or snippet (the "
+                    + "best-matching chunk with its byte offsets; fetch the body from /documents/{id})")
+            @RequestParam(defaultValue = "full") String content) {
+        validate(q, limit, offset);
+        return searchService.searchClient(id, q.trim(), limit, offset, effort(effort, efSearch, candidates),
+                content(content));
+    }
+
+    private static SearchEffort effort(String level, Integer efSearch, Integer candidates) {
+        try {
+            return SearchEffort.of(level, efSearch, candidates);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResultContent content(String value) {
+        try {
+            return ResultContent.of(value);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static void validate(String q, int limit, int offset) {
         if (q == null || q.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "Query parameter 'q' is required and must not be blank");
         }
-        return searchService.search(q.trim());
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query parameter 'limit' must be between 1 and " + MAX_LIMIT);
+        }
+        if (offset < 0 || offset + limit > MAX_WINDOW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query parameter 'offset' must be non-negative and offset + limit must not exceed " + MAX_WINDOW);
+        }
     }
 }
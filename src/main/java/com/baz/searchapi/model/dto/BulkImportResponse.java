@@ -0,0 +1,35 @@
+package com.baz.searchapi.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkImportResponse(
+        int total,
+        int created,
+        int failed,
+        List<ItemResult> items
+) {
+
+    /**
+     * Outcome for one NDJSON line. {@code index} is the zero-based position of the item in the
+     * body, not counting blank lines.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemResult(
+            int index,
+            String status,
+            UUID documentId,
+            String title,
+            String error
+    ) {
+        public static ItemResult created(int index, UUID documentId, String title) {
+            return new ItemResult(index, "CREATED", documentId, title, null);
+        }
+
+        public static ItemResult failed(int index, String title, String error) {
+            return new ItemResult(index, "FAILED", null, title, error);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.baz.searchapi.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The chunk of a document that best matches a search, returned in place of the document's full
+ * content. {@code startByte} and {@code endByte} are the chunk's UTF-8 byte range in the content
+ * served by {@code GET /documents/{id}} (null for chunks stored before offsets were recorded);
+ * {@code highlight} is a {@code ts_headline} excerpt of the chunk with the query terms wrapped
+ * in {@code <b>}, present only when the chunk contains them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DocumentSnippet(
+        String text,
+        Integer startByte,
+        Integer endByte,
+        String highlight
+) {
+}
@@ -0,0 +1,18 @@
+package com.baz.searchapi.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IngestionJobResponse(
+        UUID id,
+        UUID documentId,
+        String status,
+        Integer chunkCount,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -12,13 +12,23 @@ public sealed interface SearchResultItem permits SearchResultItem.ClientResult,
     UUID id();
 
     static ClientResult fromClient(ClientResponse clientResponse) {
-        return ClientResult.from(clientResponse);
+        return ClientResult.from(clientResponse, null);
+    }
+
+    static ClientResult fromClient(ClientResponse clientResponse, double score) {
+        return ClientResult.from(clientResponse, score);
     }
 
     static DocumentResult fromDocument(DocumentResponse documentResponse, double score) {
         return DocumentResult.from(documentResponse, score);
     }
 
+    /** A document result carrying its best-matching chunk instead of its full content. */
+    static DocumentResult fromSnippet(UUID id, UUID clientId, String title, LocalDateTime createdAt,
+                                      DocumentSnippet snippet, double score) {
+        return new DocumentResult("document", id, clientId, title, null, snippet, createdAt, score);
+    }
+
     @JsonInclude(JsonInclude.Include.NON_NULL)
     record ClientResult(
             String type,
@@ -27,28 +37,31 @@ public sealed interface SearchResultItem permits SearchResultItem.ClientResult,
             String lastName,
             String email,
             String description,
-            List<String> socialLinks
+            List<String> socialLinks,
+            Double score
     ) implements SearchResultItem {
 
-        static ClientResult from(ClientResponse clientResponse) {
+        static ClientResult from(ClientResponse clientResponse, Double score) {
             return new ClientResult("client", clientResponse.id(), clientResponse.firstName(), clientResponse.lastName(),
-                    clientResponse.email(), clientResponse.description(), clientResponse.socialLinks());
+                    clientResponse.email(), clientResponse.description(), clientResponse.socialLinks(), score);
         }
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     record DocumentResult(
             String type,
             UUID id,
             UUID clientId,
             String title,
             String content,
+            DocumentSnippet snippet,
             LocalDateTime createdAt,
             double score
     ) implements SearchResultItem {
 
         static DocumentResult from(DocumentResponse documentResponse, double score) {
             return new DocumentResult("document", documentResponse.id(), documentResponse.clientId(), documentResponse.title(),
-                    documentResponse.content(), documentResponse.createdAt(), score);
+                    documentResponse.content(), null, documentResponse.createdAt(), score);
         }
     }
 }
@@ -1,8 +1,9 @@
 package com.baz.searchapi.model.entity;
 
-import com.baz.searchapi.config.VectorConverter;
+import com.baz.searchapi.config.VectorType;
 import jakarta.persistence.*;
 import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.Type;
 
 import java.util.UUID;
 
@@ -24,11 +25,17 @@ public class Chunk {
     @Column(nullable = false)
     private String text;
 
-    @Convert(converter = VectorConverter.class)
-    @ColumnTransformer(write = "?::vector")
-    @Column(columnDefinition = "vector(384)", nullable = false)
+    // Stored as halfvec; bound and read as a full-precision vector, which Postgres casts
+    @Type(VectorType.class)
+    @ColumnTransformer(read = "embedding::vector", write = "?::halfvec(384)")
+    @Column(columnDefinition = "halfvec(384)", nullable = false)
     private float[] embedding;
 
+    // UTF-8 byte range of the chunk within its document; null where unknown
+    private Integer startByte;
+
+    private Integer endByte;
+
     public Chunk() {}
 
     public Chunk(UUID id, Document document, int chunkIndex, String text, float[] embedding) {
@@ -53,4 +60,10 @@ public class Chunk {
 
     public float[] getEmbedding() { return embedding; }
     public void setEmbedding(float[] embedding) { this.embedding = embedding; }
+
+    public Integer getStartByte() { return startByte; }
+    public void setStartByte(Integer startByte) { this.startByte = startByte; }
+
+    public Integer getEndByte() { return endByte; }
+    public void setEndByte(Integer endByte) { this.endByte = endByte; }
 }
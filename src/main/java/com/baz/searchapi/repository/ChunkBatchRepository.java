@@ -0,0 +1,20 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.model.entity.Chunk;
+
+import java.util.List;
+
+/**
+ * Bulk chunk persistence that bypasses the per-entity JPA insert path.
+ */
+public interface ChunkBatchRepository {
+
+    /**
+     * Inserts all chunks in one JDBC batch. Chunks without an id are assigned a random UUID.
+     * Each chunk's client id is copied from its document's client.
+     * With {@code reWriteBatchedInserts} enabled on the driver, the batch is sent as multi-row
+     * INSERT statements rather than one statement per chunk. Publishes a
+     * {@link ChunksInsertedEvent} for the inserted chunks.
+     */
+    void insertAll(List<Chunk> chunks);
+}
@@ -0,0 +1,58 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.config.PgVectorBinding;
+import com.baz.searchapi.model.entity.Chunk;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+class ChunkBatchRepositoryImpl implements ChunkBatchRepository {
+
+    private static final String INSERT_CHUNK = """
+        INSERT INTO chunks (id, document_id, client_id, chunk_index, text, embedding, start_byte, end_byte)
+        VALUES (?, ?, ?, ?, ?, ?::halfvec(384), ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    ChunkBatchRepositoryImpl(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void insertAll(List<Chunk> chunks) {
+        if (chunks.isEmpty()) return;
+        for (Chunk chunk : chunks) {
+            if (chunk.getId() == null) chunk.setId(UUID.randomUUID());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_CHUNK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Chunk chunk = chunks.get(i);
+                ps.setObject(1, chunk.getId());
+                ps.setObject(2, chunk.getDocument().getId());
+                ps.setObject(3, chunk.getDocument().getClient().getId());
+                ps.setInt(4, chunk.getChunkIndex());
+                ps.setString(5, chunk.getText());
+                PgVectorBinding.bind(ps, 6, chunk.getEmbedding());
+                ps.setObject(7, chunk.getStartByte(), Types.INTEGER);
+                ps.setObject(8, chunk.getEndByte(), Types.INTEGER);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunks.size();
+            }
+        });
+        eventPublisher.publishEvent(new ChunksInsertedEvent(List.copyOf(chunks)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.baz.searchapi.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Vector similarity queries over chunks. Implemented with plain JDBC rather than a
+ * {@code @Query} so the query embedding can be bound as a binary pgvector parameter.
+ */
+public interface ChunkSearchRepository {
+
+    /**
+     * Returns the top-K documents nearest to queryEmbedding by inner product, best first.
+     * Embeddings are unit length, so the score is their cosine similarity. Aggregates chunk
+     * scores per document in a single DB round-trip using the HNSW index.
+     * Returns at most {@code limit} [document_id, score] rows — no heap loading of embeddings.
+     *
+     * <p>{@code efSearch} sets {@code hnsw.ef_search} for this query's transaction and
+     * {@code chunkCandidates} is how many nearest chunks are grouped. When the candidates
+     * outnumber ef_search, an iterative index scan supplies the rest.
+     */
+    List<Object[]> findTopDocumentsByEmbedding(float[] queryEmbedding, int limit, int efSearch, int chunkCandidates);
+
+    /**
+     * Same rows as {@link #findTopDocumentsByEmbedding}, counting only the given client's chunks.
+     * The filter is applied inside the scan (via {@code chunks.client_id}), so a client with few
+     * chunks still gets a full top-K rather than whatever survives of the global neighbourhood.
+     */
+    List<Object[]> findTopDocumentsByEmbeddingForClient(UUID clientId, float[] queryEmbedding, int limit,
+                                                        int efSearch, int chunkCandidates);
+
+    /**
+     * Same rows as {@link #findTopDocumentsByEmbedding}, in two stages within one query. The
+     * binary-quantized index supplies {@code oversampling} times the usual number of candidate
+     * chunks ({@code chunkCandidates × oversampling}) by Hamming distance. Those are then
+     * rescored by inner product against the stored embeddings, so scores are exact and only the
+     * candidate set is approximate. The bit index is 48 bytes per chunk, so it stays in memory
+     * long after the halfvec index has outgrown it.
+     */
+    List<Object[]> findTopDocumentsByBinaryEmbedding(float[] queryEmbedding, int limit,
+                                                     int efSearch, int chunkCandidates, int oversampling);
+
+    /**
+     * Streams every chunk's id, document id and embedding to the handler, reading from a
+     * server-side cursor so the table is never held in memory at once. Must run inside a
+     * transaction; PgJDBC only honours the fetch size with auto-commit off.
+     */
+    void scanEmbeddings(EmbeddingHandler handler);
+
+    @FunctionalInterface
+    interface EmbeddingHandler {
+        void accept(UUID chunkId, UUID documentId, float[] embedding);
+    }
+}
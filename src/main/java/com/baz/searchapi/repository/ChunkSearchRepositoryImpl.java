@@ -0,0 +1,154 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.config.PgVectorBinding;
+import com.pgvector.PGvector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.UUID;
+
+class ChunkSearchRepositoryImpl implements ChunkSearchRepository {
+
+    private static final String TOP_DOCUMENTS_BY_EMBEDDING = """
+        SELECT document_id, MAX(-neg_ip) AS score
+        FROM (
+            SELECT document_id, (embedding <#> ?::halfvec(384)) AS neg_ip
+            FROM   chunks
+            ORDER  BY neg_ip
+            LIMIT  ?
+        ) nearest
+        GROUP  BY document_id
+        ORDER  BY score DESC, document_id
+        LIMIT  ?
+        """;
+
+    /**
+     * Stage one walks the bit(384) Hamming index for an oversampled candidate set; the
+     * expression must match idx_chunks_embedding_bq exactly for the planner to use it. Stage
+     * two rescores only those candidates against the stored halfvec.
+     */
+    private static final String TOP_DOCUMENTS_BY_BINARY_EMBEDDING = """
+        SELECT document_id, MAX(score) AS score
+        FROM (
+            SELECT document_id, -(embedding <#> ?::halfvec(384)) AS score
+            FROM (
+                SELECT document_id, embedding
+                FROM   chunks
+                ORDER  BY binary_quantize(embedding)::bit(384) <~> binary_quantize(?::halfvec(384))
+                LIMIT  ?
+            ) candidates
+            ORDER  BY score DESC
+            LIMIT  ?
+        ) nearest
+        GROUP  BY document_id
+        ORDER  BY score DESC, document_id
+        LIMIT  ?
+        """;
+
+    /**
+     * {@link #TOP_DOCUMENTS_BY_EMBEDDING} restricted to one client's chunks. Run with
+     * hnsw.iterative_scan on, so an index scan filtered by client keeps walking the graph until
+     * it has enough candidates instead of stopping after ef_search global neighbours.
+     */
+    private static final String TOP_CLIENT_DOCUMENTS_BY_EMBEDDING = """
+        SELECT document_id, MAX(-neg_ip) AS score
+        FROM (
+            SELECT document_id, (embedding <#> ?::halfvec(384)) AS neg_ip
+            FROM   chunks
+            WHERE  client_id = ?
+            ORDER  BY neg_ip
+            LIMIT  ?
+        ) nearest
+        GROUP  BY document_id
+        ORDER  BY score DESC, document_id
+        LIMIT  ?
+        """;
+
+    /** Widened back to vector so the embeddings arrive in pgvector's binary format. */
+    private static final String ALL_EMBEDDINGS = "SELECT id, document_id, embedding::vector FROM chunks";
+    private static final int SCAN_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+
+    ChunkSearchRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public List<Object[]> findTopDocumentsByEmbedding(float[] queryEmbedding, int limit,
+                                                      int efSearch, int chunkCandidates) {
+        return readOnlyTx.execute(status -> {
+            // The graph scan stops after ef_search rows unless iterative scans let it continue
+            setLocalScan(efSearch, chunkCandidates > efSearch ? "strict_order" : null);
+            return jdbcTemplate.query(TOP_DOCUMENTS_BY_EMBEDDING,
+                    ps -> {
+                        PgVectorBinding.bind(ps, 1, queryEmbedding);
+                        ps.setInt(2, chunkCandidates);
+                        ps.setInt(3, limit);
+                    },
+                    (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getDouble(2)});
+        });
+    }
+
+    @Override
+    public List<Object[]> findTopDocumentsByEmbeddingForClient(UUID clientId, float[] queryEmbedding, int limit,
+                                                               int efSearch, int chunkCandidates) {
+        return readOnlyTx.execute(status -> {
+            setLocalScan(efSearch, "strict_order");
+            return jdbcTemplate.query(TOP_CLIENT_DOCUMENTS_BY_EMBEDDING,
+                    ps -> {
+                        PgVectorBinding.bind(ps, 1, queryEmbedding);
+                        ps.setObject(2, clientId);
+                        ps.setInt(3, chunkCandidates);
+                        ps.setInt(4, limit);
+                    },
+                    (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getDouble(2)});
+        });
+    }
+
+    @Override
+    public List<Object[]> findTopDocumentsByBinaryEmbedding(float[] queryEmbedding, int limit,
+                                                            int efSearch, int chunkCandidates, int oversampling) {
+        int binaryCandidates = (int) Math.min(Integer.MAX_VALUE, (long) chunkCandidates * oversampling);
+        return readOnlyTx.execute(status -> {
+            // Candidates are rescored and re-sorted, so stage one need not come back in order
+            setLocalScan(efSearch, "relaxed_order");
+            return jdbcTemplate.query(TOP_DOCUMENTS_BY_BINARY_EMBEDDING,
+                    ps -> {
+                        PgVectorBinding.bind(ps, 1, queryEmbedding);
+                        PgVectorBinding.bind(ps, 2, queryEmbedding);
+                        ps.setInt(3, binaryCandidates);
+                        ps.setInt(4, chunkCandidates);
+                        ps.setInt(5, limit);
+                    },
+                    (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getDouble(2)});
+        });
+    }
+
+    private void setLocalScan(int efSearch, String iterativeScan) {
+        HnswScanSettings.setLocal(jdbcTemplate, efSearch, iterativeScan);
+    }
+
+    @Override
+    public void scanEmbeddings(EmbeddingHandler handler) {
+        jdbcTemplate.query(con -> {
+                    PgVectorBinding.enableBinaryTransfer(con);
+                    PreparedStatement ps = con.prepareStatement(ALL_EMBEDDINGS);
+                    ps.setFetchSize(SCAN_FETCH_SIZE);
+                    return ps;
+                },
+                rs -> {
+                    Object value = rs.getObject(3);
+                    float[] embedding = value instanceof PGvector vector
+                            ? vector.toArray()
+                            : new PGvector(value.toString()).toArray();
+                    handler.accept(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), embedding);
+                });
+    }
+}
@@ -0,0 +1,12 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.model.entity.Chunk;
+
+import java.util.List;
+
+/**
+ * Published by {@link ChunkBatchRepository#insertAll} for the chunks it wrote, so in-memory
+ * indexes can follow the table. Listen with {@code @TransactionalEventListener} to see only
+ * committed chunks.
+ */
+public record ChunksInsertedEvent(List<Chunk> chunks) {}
@@ -11,16 +11,26 @@ import java.util.UUID;
 public interface ClientRepository extends JpaRepository<Client, UUID> {
 
     /**
-     * Case-insensitive substring search across all client text fields.
+     * Case-insensitive substring search across all client text fields, ranked by trigram similarity.
      * Matches anywhere in first_name, last_name, email, or description —
      * e.g. "Outlook" matches "john.doe@outlook.com".
+     * Returns at most {@code limit} [client_id, score] rows, best match first. The first ILIKE runs against the
+     * same concatenated expression as the idx_clients_search_trgm GIN index, so the index serves it; the
+     * per-field ILIKEs then drop rows where the query only appears across a field boundary.
+     * score is pg_trgm word_similarity in [0, 1]: how well the query matches some part of the text.
      */
     @Query(value = """
-        SELECT * FROM clients
-        WHERE first_name  ILIKE '%' || :query || '%'
-           OR last_name   ILIKE '%' || :query || '%'
-           OR email       ILIKE '%' || :query || '%'
-           OR description ILIKE '%' || :query || '%'
+        SELECT id, word_similarity(:query, search_text) AS score
+        FROM  (SELECT id, first_name || ' ' || last_name || ' ' || email || ' ' || coalesce(description, '') AS search_text
+               FROM   clients
+               WHERE  (first_name || ' ' || last_name || ' ' || email || ' ' || coalesce(description, ''))
+                      ILIKE '%' || :query || '%'
+               AND   (first_name  ILIKE '%' || :query || '%'
+                  OR  last_name   ILIKE '%' || :query || '%'
+                  OR  email       ILIKE '%' || :query || '%'
+                  OR  description ILIKE '%' || :query || '%')) matches
+        ORDER BY score DESC, id
+        LIMIT :limit
         """, nativeQuery = true)
-    List<Client> fullTextSearch(@Param("query") String query);
+    List<Object[]> searchByTrigram(@Param("query") String query, @Param("limit") int limit);
 }
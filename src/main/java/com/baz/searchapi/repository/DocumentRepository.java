@@ -5,20 +5,50 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public interface DocumentRepository extends JpaRepository<Document, UUID> {
+public interface DocumentRepository extends JpaRepository<Document, UUID>, DocumentSearchRepository {
 
     /**
      * Keyword search: documents whose title or content match the query terms.
-     * Returns [document_id, keyword_score] rows for hybrid re-ranking in the service layer.
+     * Returns at most {@code limit} [document_id, keyword_score] rows, best first, for hybrid
+     * re-ranking in the service layer.
      * plainto_tsquery is evaluated once via the FROM clause and reused for both filter and rank.
      */
     @Query(value = """
         SELECT id, ts_rank(search_vector, q) AS keyword_score
         FROM   documents, plainto_tsquery('english', :query) q
         WHERE  search_vector @@ q
+        ORDER  BY keyword_score DESC, id
+        LIMIT  :limit
         """, nativeQuery = true)
-    List<Object[]> findDocumentIdsByKeyword(@Param("query") String query);
+    List<Object[]> findDocumentIdsByKeyword(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * {@link #findDocumentIdsByKeyword} restricted to one client's documents.
+     */
+    @Query(value = """
+        SELECT id, ts_rank(search_vector, q) AS keyword_score
+        FROM   documents, plainto_tsquery('english', :query) q
+        WHERE  client_id = :clientId AND search_vector @@ q
+        ORDER  BY keyword_score DESC, id
+        LIMIT  :limit
+        """, nativeQuery = true)
+    List<Object[]> findDocumentIdsByKeywordForClient(@Param("clientId") UUID clientId,
+                                                     @Param("query") String query,
+                                                     @Param("limit") int limit);
+
+    /**
+     * Which of the given lower-cased titles the client already has a document for.
+     * Mirrors the case-insensitive (client_id, LOWER(title)) unique index.
+     */
+    @Query(value = """
+        SELECT LOWER(title)
+        FROM   documents
+        WHERE  client_id = :clientId AND LOWER(title) IN (:titles)
+        """, nativeQuery = true)
+    List<String> findExistingLowerTitles(@Param("clientId") UUID clientId,
+                                         @Param("titles") Collection<String> titles);
 }
@@ -0,0 +1,58 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.model.dto.DocumentSnippet;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hybrid document search in a single statement, and snippet lookups for search results.
+ * Implemented with plain JDBC rather than a {@code @Query} so the query embedding can be bound
+ * as a binary pgvector parameter and the HNSW scan settings applied to the same transaction.
+ */
+public interface DocumentSearchRepository {
+
+    /**
+     * Runs both legs of a hybrid search and ranks their union in one round-trip. The semantic
+     * leg takes the {@code candidates} documents nearest to queryEmbedding (over
+     * {@code chunkCandidates} chunks at {@code hnsw.ef_search = efSearch}); the keyword leg takes
+     * the {@code candidates} best ts_rank matches. Keyword scores are divided by the larger of
+     * their maximum and {@code weights.minKeywordNormaliser()}, the two are blended by
+     * {@code weights.keywordWeight()}, keyword matches are floored at the threshold and
+     * anything below it is dropped.
+     *
+     * <p>Returns at most {@code limit} matches with the columns a search result needs, best
+     * first, ties broken by document id. Searches every client's documents when
+     * {@code clientId} is null. With {@code snippets}, each match carries its best chunk as in
+     * {@link #findSnippets} and no content, so document bodies are never read.
+     *
+     * <p>The result also says whether the semantic leg's chunk scan returned fewer than
+     * {@code chunkCandidates} chunks although the searched scope holds more, i.e. whether a
+     * deeper scan could find more.
+     */
+    HybridResult findTopDocumentsHybrid(UUID clientId, float[] queryEmbedding, String query, int limit,
+                                        int candidates, int efSearch, int chunkCandidates,
+                                        HybridWeights weights, boolean snippets);
+
+    /**
+     * For each of the given documents, the columns a search result needs and its chunk nearest
+     * to queryEmbedding, with a ts_headline of that chunk when it contains the query terms.
+     * Reads chunk text only, never the document content. Rows come back in no particular order.
+     */
+    List<SnippetMatch> findSnippets(Collection<UUID> documentIds, float[] queryEmbedding, String query);
+
+    /** How the two legs' scores are combined. */
+    record HybridWeights(double keywordWeight, double threshold, double minKeywordNormaliser) {}
+
+    /** The ranked matches, and whether the semantic leg's scan came back short. */
+    record HybridResult(List<HybridMatch> matches, boolean semanticShort) {}
+
+    /** A ranked document with its combined score, and either its content or its snippet. */
+    record HybridMatch(UUID id, UUID clientId, String title, String content, DocumentSnippet snippet,
+                       LocalDateTime createdAt, double score) {}
+
+    /** A document's result columns with its best-matching chunk. */
+    record SnippetMatch(UUID id, UUID clientId, String title, DocumentSnippet snippet, LocalDateTime createdAt) {}
+}
@@ -0,0 +1,202 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.config.PgVectorBinding;
+import com.baz.searchapi.model.dto.DocumentSnippet;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+class DocumentSearchRepositoryImpl implements DocumentSearchRepository {
+
+    /**
+     * The nearest and semantic CTEs are the chunk nearest-neighbour query, the keyword CTE the
+     * ts_rank query; both legs keep their own ORDER BY ... LIMIT so each leg's candidate set
+     * matches the separate queries exactly. Documents are joined only after the top K is cut.
+     * The scan CTE flags a chunk scan that came back short while the scope holds more chunks;
+     * it is joined to the results so the flag arrives even when no document qualifies. The %s
+     * slots take the client filters, then the projected body columns and their join.
+     */
+    private static final String HYBRID_SEARCH = """
+        WITH nearest AS (
+            SELECT document_id, (embedding <#> ?::halfvec(384)) AS neg_ip
+            FROM   chunks
+            %s
+            ORDER  BY neg_ip
+            LIMIT  ?
+        ),
+        semantic AS (
+            SELECT document_id AS id, MAX(-neg_ip) AS semantic
+            FROM   nearest
+            GROUP  BY document_id
+            ORDER  BY semantic DESC, document_id
+            LIMIT  ?
+        ),
+        scan AS (
+            SELECT count(*) < ? AND EXISTS (
+                       SELECT 1 FROM chunks %s OFFSET (SELECT count(*) FROM nearest)
+                   ) AS semantic_short
+            FROM   nearest
+        ),
+        keyword AS (
+            SELECT id, ts_rank(search_vector, q) AS raw
+            FROM   documents, plainto_tsquery('english', ?) q
+            WHERE  %ssearch_vector @@ q
+            ORDER  BY raw DESC, id
+            LIMIT  ?
+        ),
+        combined AS (
+            SELECT COALESCE(s.id, k.id) AS id,
+                   k.id IS NOT NULL    AS keyword_match,
+                   ?::float8 * COALESCE(k.raw / GREATEST(MAX(k.raw) OVER (), ?::float8), 0)
+                     + ?::float8 * COALESCE(s.semantic, 0) AS score
+            FROM   semantic s
+            FULL   OUTER JOIN keyword k ON k.id = s.id
+        ),
+        ranked AS (
+            SELECT id, CASE WHEN keyword_match THEN GREATEST(score, ?::float8) ELSE score END AS score
+            FROM   combined
+        ),
+        top_k AS (
+            SELECT id, score
+            FROM   ranked
+            WHERE  score >= ?::float8
+            ORDER  BY score DESC, id
+            LIMIT  ?
+        )
+        SELECT d.id, d.client_id, d.title, d.created_at, t.score, %s, s.semantic_short
+        FROM   scan s
+        LEFT   JOIN (top_k t
+                     JOIN documents d ON d.id = t.id
+                     %s) ON true
+        ORDER  BY t.score DESC, t.id
+        """;
+
+    /**
+     * The document's chunk nearest the query, found through idx_chunks_document. The ordering
+     * is on the negated distance so the planner cannot answer it from the HNSW index, whose
+     * approximate scan might skip a document's few chunks. Binds the embedding, then the query
+     * text.
+     */
+    private static final String BEST_CHUNK = """
+        LEFT   JOIN LATERAL (
+            SELECT c.text, c.start_byte, c.end_byte,
+                   CASE WHEN to_tsvector('english', c.text) @@ hq.q
+                        THEN ts_headline('english', c.text, hq.q, 'MaxFragments=2, MinWords=5, MaxWords=20')
+                   END AS highlight,
+                   -(c.embedding <#> ?::halfvec(384)) AS similarity
+            FROM   chunks c, plainto_tsquery('english', ?) hq(q)
+            WHERE  c.document_id = d.id
+            ORDER  BY similarity DESC, c.chunk_index
+            LIMIT  1
+        ) best ON true
+        """;
+
+    private static final String SNIPPET_COLUMNS = "best.text, best.start_byte, best.end_byte, best.highlight";
+
+    private static final String SNIPPETS = """
+        SELECT d.id, d.client_id, d.title, d.created_at, %s
+        FROM   documents d
+        %s
+        WHERE  d.id = ANY (?)
+        """.formatted(SNIPPET_COLUMNS, BEST_CHUNK);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+
+    DocumentSearchRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public HybridResult findTopDocumentsHybrid(UUID clientId, float[] queryEmbedding, String query, int limit,
+                                               int candidates, int efSearch, int chunkCandidates,
+                                               HybridWeights weights, boolean snippets) {
+        String sql = HYBRID_SEARCH.formatted(
+                clientId == null ? "" : "WHERE  client_id = ?",
+                clientId == null ? "" : "WHERE client_id = ?",
+                clientId == null ? "" : "client_id = ? AND ",
+                snippets ? SNIPPET_COLUMNS : "d.content",
+                snippets ? BEST_CHUNK : "");
+        return readOnlyTx.execute(status -> {
+            // Same scan settings as the standalone semantic queries in ChunkSearchRepositoryImpl
+            HnswScanSettings.setLocal(jdbcTemplate, efSearch,
+                    clientId != null || chunkCandidates > efSearch ? "strict_order" : null);
+            List<HybridMatch> matches = new ArrayList<>();
+            boolean[] semanticShort = {false};
+            jdbcTemplate.query(sql,
+                    ps -> {
+                        int i = 1;
+                        PgVectorBinding.bind(ps, i++, queryEmbedding);
+                        if (clientId != null) ps.setObject(i++, clientId);
+                        ps.setInt(i++, chunkCandidates);
+                        ps.setInt(i++, candidates);
+                        ps.setInt(i++, chunkCandidates);
+                        if (clientId != null) ps.setObject(i++, clientId);
+                        ps.setString(i++, query);
+                        if (clientId != null) ps.setObject(i++, clientId);
+                        ps.setInt(i++, candidates);
+                        ps.setDouble(i++, weights.keywordWeight());
+                        ps.setDouble(i++, weights.minKeywordNormaliser());
+                        ps.setDouble(i++, 1 - weights.keywordWeight());
+                        ps.setDouble(i++, weights.threshold());
+                        ps.setDouble(i++, weights.threshold());
+                        ps.setInt(i++, limit);
+                        if (snippets) {
+                            PgVectorBinding.bind(ps, i++, queryEmbedding);
+                            ps.setString(i, query);
+                        }
+                    },
+                    rs -> {
+                        int columns = rs.getMetaData().getColumnCount();
+                        semanticShort[0] = rs.getBoolean(columns);
+                        // With no qualifying document the scan flag comes back alone
+                        if (rs.getObject(1) == null) return;
+                        matches.add(new HybridMatch(
+                                rs.getObject(1, UUID.class),
+                                rs.getObject(2, UUID.class),
+                                rs.getString(3),
+                                snippets ? null : rs.getString(6),
+                                snippets ? snippet(rs, 6) : null,
+                                rs.getTimestamp(4).toLocalDateTime(),
+                                rs.getDouble(5)));
+                    });
+            return new HybridResult(matches, semanticShort[0]);
+        });
+    }
+
+    @Override
+    public List<SnippetMatch> findSnippets(Collection<UUID> documentIds, float[] queryEmbedding, String query) {
+        if (documentIds.isEmpty()) return List.of();
+        return jdbcTemplate.query(SNIPPETS,
+                ps -> {
+                    PgVectorBinding.bind(ps, 1, queryEmbedding);
+                    ps.setString(2, query);
+                    ps.setArray(3, ps.getConnection().createArrayOf("uuid", documentIds.toArray()));
+                },
+                (rs, rowNum) -> new SnippetMatch(
+                        rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class),
+                        rs.getString(3),
+                        snippet(rs, 5),
+                        rs.getTimestamp(4).toLocalDateTime()));
+    }
+
+    /** The snippet in the four columns starting at {@code column}; null if the document has no chunks. */
+    private static DocumentSnippet snippet(ResultSet rs, int column) throws SQLException {
+        String text = rs.getString(column);
+        if (text == null) return null;
+        return new DocumentSnippet(text,
+                rs.getObject(column + 1, Integer.class),
+                rs.getObject(column + 2, Integer.class),
+                rs.getString(column + 3));
+    }
+}
@@ -0,0 +1,23 @@
+package com.baz.searchapi.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Per-query pgvector HNSW scan parameters, shared by the repositories that walk the chunk index.
+ */
+final class HnswScanSettings {
+
+    private HnswScanSettings() {}
+
+    /**
+     * Sets the HNSW scan parameters for the current transaction only; SET LOCAL reverts at
+     * commit, so the pooled connection goes back unchanged. Both values are formatted from
+     * trusted ints and constants, as SET takes no bind parameters.
+     */
+    static void setLocal(JdbcTemplate jdbcTemplate, int efSearch, String iterativeScan) {
+        jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + efSearch);
+        if (iterativeScan != null) {
+            jdbcTemplate.execute("SET LOCAL hnsw.iterative_scan = " + iterativeScan);
+        }
+    }
+}
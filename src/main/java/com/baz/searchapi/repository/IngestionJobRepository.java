@@ -0,0 +1,73 @@
+package com.baz.searchapi.repository;
+
+import com.baz.searchapi.model.entity.IngestionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface IngestionJobRepository extends JpaRepository<IngestionJob, UUID> {
+
+    /**
+     * Ids of jobs that nobody is working on: PENDING, or RUNNING with a lease that started
+     * before {@code staleBefore}. Oldest first.
+     */
+    @Query(value = """
+        SELECT id FROM ingestion_jobs
+        WHERE  status = 'PENDING' OR (status = 'RUNNING' AND updated_at < :staleBefore)
+        ORDER BY created_at, id
+        """, nativeQuery = true)
+    List<UUID> findResumableIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Ids of unfinished jobs last touched before {@code staleBefore}: RUNNING jobs whose
+     * worker's lease has expired, and PENDING jobs no instance has claimed for as long.
+     * Oldest first.
+     */
+    @Query(value = """
+        SELECT id FROM ingestion_jobs
+        WHERE  status IN ('PENDING', 'RUNNING') AND updated_at < :staleBefore
+        ORDER BY created_at, id
+        """, nativeQuery = true)
+    List<UUID> findStaleIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Take a job for this worker: PENDING, or RUNNING with a lease older than {@code staleBefore}.
+     * updated_at becomes {@code claimedAt}, the lease the later updates are fenced on.
+     * Returns 1 if the job was claimed, 0 if another worker holds it or it has finished.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE ingestion_jobs SET status = 'RUNNING', updated_at = :claimedAt
+        WHERE  id = :id AND (status = 'PENDING' OR (status = 'RUNNING' AND updated_at < :staleBefore))
+        """, nativeQuery = true)
+    int claim(@Param("id") UUID id,
+              @Param("claimedAt") LocalDateTime claimedAt,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /** Mark a claimed job COMPLETED. Returns 0 if the lease {@code claimedAt} was taken over meanwhile. */
+    @Modifying
+    @Query(value = """
+        UPDATE ingestion_jobs SET status = 'COMPLETED', chunk_count = :chunkCount, updated_at = :now
+        WHERE  id = :id AND status = 'RUNNING' AND updated_at = :claimedAt
+        """, nativeQuery = true)
+    int complete(@Param("id") UUID id,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("chunkCount") int chunkCount,
+                 @Param("now") LocalDateTime now);
+
+    /** Mark a claimed job FAILED. Returns 0 if the lease {@code claimedAt} was taken over meanwhile. */
+    @Modifying
+    @Query(value = """
+        UPDATE ingestion_jobs SET status = 'FAILED', error = :error, updated_at = :now
+        WHERE  id = :id AND status = 'RUNNING' AND updated_at = :claimedAt
+        """, nativeQuery = true)
+    int fail(@Param("id") UUID id,
+             @Param("claimedAt") LocalDateTime claimedAt,
+             @Param("error") String error,
+             @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,117 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ChunksInsertedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference backend: scores the query against every chunk embedding on the heap, selected with
+ * {@code vector-index.backend=BRUTE_FORCE}.
+ *
+ * <p>Its results are exact, so it is the baseline that approximate backends are measured
+ * against. It is loaded and kept current like {@link HnswChunkIndex}, and is single-node only
+ * for the same reason: it never sees chunks written by other instances. A batch of queries is
+ * answered in one pass, each stored vector being scored against every query before the next is
+ * read.
+ */
+@Service
+public class BruteForceVectorIndex implements VectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BruteForceVectorIndex.class);
+
+    private record Entry(UUID documentId, float[] embedding) {}
+
+    private final ChunkRepository chunkRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final VectorOps vectorOps;
+    private final boolean selected;
+    private final Map<UUID, Entry> chunks = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public BruteForceVectorIndex(ChunkRepository chunkRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 VectorOps vectorOps,
+                                 @Value("${vector-index.backend:PGVECTOR}") Backend backend) {
+        this.chunkRepository = chunkRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.vectorOps = vectorOps;
+        this.selected = backend == Backend.BRUTE_FORCE;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!selected) return;
+        long start = System.nanoTime();
+        readOnlyTx.executeWithoutResult(status -> chunkRepository.scanEmbeddings(
+                (chunkId, documentId, embedding) -> chunks.putIfAbsent(chunkId, new Entry(documentId, embedding))));
+        ready = true;
+        log.info("Brute-force index loaded: {} chunks in {} ms", chunks.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChunksInserted(ChunksInsertedEvent event) {
+        add(event.chunks());
+    }
+
+    @Override
+    public void add(List<Chunk> inserted) {
+        if (!selected) return;
+        for (Chunk chunk : inserted) {
+            chunks.putIfAbsent(chunk.getId(), new Entry(chunk.getDocument().getId(), chunk.getEmbedding()));
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> documentIds) {
+        Set<UUID> removed = Set.copyOf(documentIds);
+        chunks.values().removeIf(entry -> removed.contains(entry.documentId()));
+    }
+
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit) {
+        return findTopDocuments(List.of(queryEmbedding), limit).getFirst();
+    }
+
+    @Override
+    public List<List<Object[]>> findTopDocuments(List<float[]> queryEmbeddings, int limit) {
+        List<Map<UUID, Double>> best = new ArrayList<>(queryEmbeddings.size());
+        for (int q = 0; q < queryEmbeddings.size(); q++) {
+            best.add(new HashMap<>());
+        }
+        for (Entry entry : chunks.values()) {
+            for (int q = 0; q < queryEmbeddings.size(); q++) {
+                double score = vectorOps.dot(queryEmbeddings.get(q), entry.embedding());
+                best.get(q).merge(entry.documentId(), score, Math::max);
+            }
+        }
+        return best.stream().map(scores -> VectorIndex.topDocuments(scores, limit)).toList();
+    }
+
+    int size() {
+        return chunks.size();
+    }
+}
@@ -0,0 +1,211 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.dto.BulkImportResponse;
+import com.baz.searchapi.model.dto.BulkImportResponse.ItemResult;
+import com.baz.searchapi.model.dto.DocumentRequest;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Client;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ClientRepository;
+import com.baz.searchapi.repository.DocumentRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports many documents for one client from an NDJSON stream (one {@link DocumentRequest}
+ * per line).
+ *
+ * <p>The body is read line by line, so only the current group is held in memory. Valid
+ * items are collected into groups of {@code bulk-import.group-size}. Each group is chunked
+ * and embedded with one {@link DocumentService#buildChunks(List)} call outside any
+ * transaction, then committed in one short transaction: a batched document insert followed
+ * by one JDBC batch for all of the group's chunks.
+ *
+ * <p>A bad item fails on its own and never aborts the import. This covers malformed JSON,
+ * validation errors and duplicate titles. If a group's commit still hits the unique index,
+ * for example because of a concurrent insert, that group is retried one document per
+ * transaction so the remaining items go through.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+    private static final String DUPLICATE_TITLE = "A document with this title already exists for this client";
+
+    private final ClientRepository clientRepository;
+    private final DocumentRepository documentRepository;
+    private final ChunkRepository chunkRepository;
+    private final DocumentService documentService;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int groupSize;
+
+    public BulkImportService(ClientRepository clientRepository,
+                             DocumentRepository documentRepository,
+                             ChunkRepository chunkRepository,
+                             DocumentService documentService,
+                             JsonMapper jsonMapper,
+                             Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bulk-import.group-size:50}") int groupSize) {
+        this.clientRepository = clientRepository;
+        this.documentRepository = documentRepository;
+        this.chunkRepository = chunkRepository;
+        this.documentService = documentService;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.groupSize = groupSize;
+    }
+
+    public BulkImportResponse importDocuments(UUID clientId, InputStream ndjson) throws IOException {
+        Client client = clientRepository.findById(clientId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Client not found"));
+
+        List<ItemResult> results = new ArrayList<>();
+        List<PendingItem> group = new ArrayList<>(groupSize);
+        Set<String> seenTitles = new HashSet<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            int itemIndex = index++;
+
+            DocumentRequest request;
+            try {
+                request = jsonMapper.readValue(line, DocumentRequest.class);
+            } catch (JacksonException e) {
+                results.add(ItemResult.failed(itemIndex, null, "Malformed JSON"));
+                continue;
+            }
+
+            String invalid = validate(request);
+            if (invalid != null) {
+                results.add(ItemResult.failed(itemIndex, request.title(), invalid));
+                continue;
+            }
+            if (!seenTitles.add(request.title().toLowerCase(Locale.ROOT))) {
+                results.add(ItemResult.failed(itemIndex, request.title(), "Duplicate title earlier in this import"));
+                continue;
+            }
+
+            group.add(new PendingItem(itemIndex, request));
+            if (group.size() == groupSize) {
+                importGroup(client, group, results);
+                group.clear();
+            }
+        }
+        if (!group.isEmpty()) {
+            importGroup(client, group, results);
+        }
+
+        results.sort(Comparator.comparingInt(ItemResult::index));
+        int created = (int) results.stream().filter(r -> r.documentId() != null).count();
+        log.info("Bulk import for client {}: {} created, {} failed", clientId, created, results.size() - created);
+        return new BulkImportResponse(results.size(), created, results.size() - created, results);
+    }
+
+    private String validate(DocumentRequest request) {
+        Set<ConstraintViolation<DocumentRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void importGroup(Client client, List<PendingItem> group, List<ItemResult> results) {
+        // Titles the client already has are rejected up front rather than failing the group's commit
+        Set<String> existing = new HashSet<>(documentRepository.findExistingLowerTitles(client.getId(),
+                group.stream().map(p -> p.request().title().toLowerCase(Locale.ROOT)).toList()));
+
+        List<PendingItem> accepted = new ArrayList<>(group.size());
+        List<Document> documents = new ArrayList<>(group.size());
+        for (PendingItem item : group) {
+            if (existing.contains(item.request().title().toLowerCase(Locale.ROOT))) {
+                results.add(ItemResult.failed(item.index(), item.request().title(), DUPLICATE_TITLE));
+                continue;
+            }
+            Document document = new Document();
+            document.setClient(client);
+            document.setTitle(item.request().title());
+            document.setContent(item.request().content());
+            accepted.add(item);
+            documents.add(document);
+        }
+        if (documents.isEmpty()) return;
+
+        List<List<Chunk>> chunks;
+        try {
+            chunks = documentService.buildChunks(documents);
+        } catch (RuntimeException e) {
+            log.error("Bulk import: embedding failed for a group of {} documents", documents.size(), e);
+            accepted.forEach(item -> results.add(ItemResult.failed(item.index(), item.request().title(),
+                    "Embedding failed")));
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                documentRepository.saveAllAndFlush(documents);
+                chunkRepository.insertAll(chunks.stream().flatMap(List::stream).toList());
+            });
+            for (int i = 0; i < accepted.size(); i++) {
+                results.add(ItemResult.created(accepted.get(i).index(), documents.get(i).getId(),
+                        documents.get(i).getTitle()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Bulk import: group commit hit a constraint, retrying {} documents individually", documents.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                results.add(importOne(accepted.get(i), documents.get(i), chunks.get(i)));
+            }
+        }
+    }
+
+    private ItemResult importOne(PendingItem item, Document document, List<Chunk> chunks) {
+        // The rolled-back group commit left generated ids behind; clear them so these persist as new rows
+        document.setId(null);
+        chunks.forEach(c -> c.setId(null));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                documentRepository.saveAndFlush(document);
+                chunkRepository.insertAll(chunks);
+            });
+            return ItemResult.created(item.index(), document.getId(), document.getTitle());
+        } catch (DataIntegrityViolationException e) {
+            return ItemResult.failed(item.index(), document.getTitle(), DUPLICATE_TITLE);
+        }
+    }
+
+    private record PendingItem(int index, DocumentRequest request) {}
+}
@@ -12,6 +12,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ClientService {
@@ -40,9 +43,22 @@ public class ClientService {
         return toResponse(client);
     }
 
-    public List<SearchResultItem> searchClients(String query) {
-        return clientRepository.fullTextSearch(query).stream()
-                .<SearchResultItem>map(client -> SearchResultItem.fromClient(toResponse(client)))
+    /**
+     * The top {@code limit} clients whose text contains the query, ranked by trigram similarity (best first).
+     */
+    public List<SearchResultItem> searchClients(String query, int limit) {
+        List<Object[]> rows = clientRepository.searchByTrigram(query, limit);
+        if (rows.isEmpty()) return List.of();
+
+        Map<UUID, Client> clients = clientRepository.findAllById(
+                        rows.stream().map(row -> (UUID) row[0]).toList())
+                .stream()
+                .collect(Collectors.toMap(Client::getId, c -> c));
+
+        return rows.stream()
+                .filter(row -> clients.containsKey((UUID) row[0]))
+                .<SearchResultItem>map(row -> SearchResultItem.fromClient(
+                        toResponse(clients.get((UUID) row[0])), ((Number) row[1]).doubleValue()))
                 .toList();
     }
 
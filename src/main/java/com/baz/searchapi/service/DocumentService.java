@@ -9,8 +9,12 @@ import com.baz.searchapi.model.entity.Document;
 import com.baz.searchapi.repository.ChunkRepository;
 import com.baz.searchapi.repository.ClientRepository;
 import com.baz.searchapi.repository.DocumentRepository;
+import com.baz.searchapi.repository.DocumentSearchRepository.HybridResult;
+import com.baz.searchapi.repository.DocumentSearchRepository.HybridWeights;
+import com.baz.searchapi.repository.DocumentSearchRepository.SnippetMatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -18,40 +22,81 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
 
+    /** Where the two legs' scores are combined: in {@link #rankDocuments} or in one SQL statement. */
+    public enum Ranking { JAVA, SQL }
+
     private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
     private static final double KEYWORD_WEIGHT        = 0.3;  // α: 30% keyword, 70% semantic
     private static final double SIMILARITY_THRESHOLD  = 0.25; // applied to the combined [0,1] score
     private static final double MIN_KEYWORD_NORMALISER = 0.1; // floor prevents inflation on weak matches
+    private static final int    CANDIDATES_PER_RESULT  = 4;   // per-leg candidates fetched for each result slot
+    private static final HybridWeights HYBRID_WEIGHTS =
+            new HybridWeights(KEYWORD_WEIGHT, SIMILARITY_THRESHOLD, MIN_KEYWORD_NORMALISER);
+
+    /** Best score first; ties broken by id so paging over equal scores is stable. */
+    private static final Comparator<Map.Entry<UUID, Double>> BY_RANK =
+            Map.Entry.<UUID, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
 
     private final DocumentRepository documentRepository;
     private final ClientRepository clientRepository;
     private final EmbeddingService embeddingService;
     private final ChunkRepository chunkRepository;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final SearchFanOut searchFanOut;
+    private final TokenChunker tokenChunker;
+    private final SemanticSearchRouter semanticSearchRouter;
+    private final Ranking ranking;
 
     public DocumentService(DocumentRepository documentRepository, ClientRepository clientRepository,
-                           EmbeddingService embeddingService, ChunkRepository chunkRepository) {
+                           EmbeddingService embeddingService, ChunkRepository chunkRepository,
+                           QueryEmbeddingCache queryEmbeddingCache, SearchFanOut searchFanOut,
+                           TokenChunker tokenChunker, SemanticSearchRouter semanticSearchRouter,
+                           @Value("${search.ranking:JAVA}") Ranking ranking) {
         this.documentRepository = documentRepository;
         this.clientRepository = clientRepository;
         this.embeddingService = embeddingService;
         this.chunkRepository = chunkRepository;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.searchFanOut = searchFanOut;
+        this.tokenChunker = tokenChunker;
+        this.semanticSearchRouter = semanticSearchRouter;
+        this.ranking = ranking;
     }
 
     @Transactional
     public DocumentResponse createDocument(UUID clientId, DocumentRequest request) {
+        Document document = saveDocument(clientId, request);
+
+        // Chunk and embed the document content
+        List<Chunk> chunks = buildChunks(document);
+        // One JDBC batch for the whole document rather than a JPA cascade insert per chunk
+        chunkRepository.insertAll(chunks);
+        log.info("Created {} chunks for document '{}'", chunks.size(), document.getTitle());
+
+        return toResponse(document);
+    }
+
+    /**
+     * Persists the document row for an existing client, without any chunks.
+     * Runs in the caller's transaction.
+     */
+    public Document saveDocument(UUID clientId, DocumentRequest request) {
         Client client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Client not found"));
@@ -62,82 +107,167 @@ public class DocumentService {
         document.setContent(request.content());
 
         try {
-            document = documentRepository.saveAndFlush(document);
+            return documentRepository.saveAndFlush(document);
         } catch (DataIntegrityViolationException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
                     "A document with this title already exists for this client");
         }
-
-        // Chunk and embed the document content
-        createChunks(document);
-
-        return toResponse(document);
     }
 
-    private void createChunks(Document document) {
-        List<String> textChunks = chunkText(document.getContent());
-        List<Chunk> chunks = new ArrayList<>();
+    /**
+     * Chunks and embeds the document content. Pure computation — no database access,
+     * so callers can run it without holding a connection.
+     */
+    public List<Chunk> buildChunks(Document document) {
+        return buildChunks(List.of(document)).getFirst();
+    }
 
-        for (int i = 0; i < textChunks.size(); i++) {
-            String text = textChunks.get(i);
-            float[] embedding = embeddingService.embed(text);
+    /**
+     * Chunks and embeds several documents with a single inference call across all of their
+     * chunks, using the token chunker when {@code chunking.strategy=TOKEN}. Returns one chunk
+     * list per document, in input order. No database access.
+     */
+    public List<List<Chunk>> buildChunks(List<Document> documents) {
+        List<List<String>> textChunksPerDoc = new ArrayList<>(documents.size());
+        List<List<int[]>> byteRangesPerDoc = new ArrayList<>(documents.size());
+        List<float[]> embeddings;
+        if (tokenChunker.isEnabled()) {
+            // Token windows already carry their model input ids, so embed those directly
+            List<long[]> allInputIds = new ArrayList<>();
+            for (Document document : documents) {
+                List<TokenChunker.TokenizedChunk> tokenChunks = tokenChunker.chunk(document.getContent());
+                textChunksPerDoc.add(tokenChunks.stream().map(TokenChunker.TokenizedChunk::text).toList());
+                byteRangesPerDoc.add(byteRanges(document.getContent(), tokenChunks.stream()
+                        .map(c -> new int[]{c.charStart(), c.charEnd()}).toList()));
+                tokenChunks.forEach(c -> allInputIds.add(c.inputIds()));
+            }
+            embeddings = embeddingService.embedTokenIds(allInputIds);
+        } else {
+            List<String> allTextChunks = new ArrayList<>();
+            for (Document document : documents) {
+                String content = document.getContent();
+                List<String> textChunks = new ArrayList<>();
+                List<int[]> charRanges = new ArrayList<>();
+                for (Iterator<WordChunker.Span> spans = WordChunker.spans(content); spans.hasNext(); ) {
+                    WordChunker.Span span = spans.next();
+                    textChunks.add(span.text(content));
+                    charRanges.add(new int[]{span.start(), span.end()});
+                }
+                textChunksPerDoc.add(textChunks);
+                byteRangesPerDoc.add(byteRanges(content, charRanges));
+                allTextChunks.addAll(textChunks);
+            }
+            embeddings = embeddingService.embedBatch(allTextChunks);
+        }
 
-            Chunk chunk = new Chunk();
-            chunk.setDocument(document);
-            chunk.setChunkIndex(i);
-            chunk.setText(text);
-            chunk.setEmbedding(embedding);
-            chunks.add(chunk);
+        List<List<Chunk>> result = new ArrayList<>(documents.size());
+        int next = 0;
+
+        for (int d = 0; d < documents.size(); d++) {
+            List<String> textChunks = textChunksPerDoc.get(d);
+            List<int[]> byteRanges = byteRangesPerDoc.get(d);
+            List<Chunk> chunks = new ArrayList<>(textChunks.size());
+            for (int i = 0; i < textChunks.size(); i++) {
+                Chunk chunk = new Chunk();
+                chunk.setDocument(documents.get(d));
+                chunk.setChunkIndex(i);
+                chunk.setText(textChunks.get(i));
+                chunk.setEmbedding(embeddings.get(next++));
+                chunk.setStartByte(byteRanges.get(i)[0]);
+                chunk.setEndByte(byteRanges.get(i)[1]);
+                chunks.add(chunk);
+            }
+            result.add(chunks);
         }
+        return result;
+    }
 
-        document.getChunks().addAll(chunks);
-        documentRepository.save(document);
-        log.info("Created {} chunks for document '{}'", chunks.size(), document.getTitle());
+    /**
+     * Converts chunk character ranges of {@code text} to UTF-8 byte ranges. Chunks start in
+     * ascending order, so the byte position is carried forward rather than recounted per chunk.
+     */
+    private static List<int[]> byteRanges(String text, List<int[]> charRanges) {
+        List<int[]> byteRanges = new ArrayList<>(charRanges.size());
+        int charPos = 0;
+        int bytePos = 0;
+        for (int[] range : charRanges) {
+            bytePos += WordChunker.utf8Length(text, charPos, range[0]);
+            charPos = range[0];
+            byteRanges.add(new int[]{bytePos, bytePos + WordChunker.utf8Length(text, range[0], range[1])});
+        }
+        return byteRanges;
     }
 
     /**
      * Split text into overlapping chunks of ~150 words.
      * Overlap: 25 words. Final chunk < 50 words is merged into previous.
+     * See {@link WordChunker} for the lazy, offset-based form.
      */
     public List<String> chunkText(String text) {
-        String[] words = text.trim().split("\\s+");
-
-        if (words.length <= 150) {
-            return List.of(String.join(" ", words));
-        }
+        return WordChunker.chunks(text).toList();
+    }
 
-        int targetSize = 150;
-        int overlap = 25;
-        int step = targetSize - overlap;
+    /**
+     * Returns the top {@code limit} documents for the query, best first.
+     *
+     * <p>The semantic and keyword legs run concurrently. If one fails or times out, ranking
+     * proceeds on the other leg's scores alone. Each leg returns only its best
+     * {@code limit × CANDIDATES_PER_RESULT} candidates. A document just outside one leg's cut-off
+     * can still rank through the other leg's score, so the extra candidates leave room for that.
+     */
+    public List<SearchResultItem> searchDocuments(String query, int limit) {
+        return searchDocuments(query, limit, SearchEffort.BALANCED);
+    }
 
-        List<int[]> ranges = new ArrayList<>();
-        int start = 0;
+    /** {@link #searchDocuments(String, int)} with the semantic leg searching at {@code effort}. */
+    public List<SearchResultItem> searchDocuments(String query, int limit, SearchEffort effort) {
+        return searchDocuments(query, limit, effort, ResultContent.FULL);
+    }
 
-        while (start < words.length) {
-            int end = Math.min(start + targetSize, words.length);
-            ranges.add(new int[]{start, end});
-            if (end >= words.length) break;
-            start += step;
-        }
+    /**
+     * {@link #searchDocuments(String, int, SearchEffort)} with each result carrying either the
+     * document's full content or only its best-matching chunk.
+     */
+    public List<SearchResultItem> searchDocuments(String query, int limit, SearchEffort effort,
+                                                  ResultContent content) {
+        return searchDocuments(null, query, limit, effort, content);
+    }
 
-        // Merge final chunk if < 50 words
-        if (ranges.size() > 1) {
-            int[] last = ranges.getLast();
-            if (last[1] - last[0] < 50) {
-                ranges.removeLast();
-                ranges.getLast()[1] = last[1];
-            }
+    /**
+     * {@link #searchDocuments(String, int)} over one client's documents only. Both legs filter
+     * by client inside their queries, so a client with few matches still gets a full top-K.
+     */
+    public List<SearchResultItem> searchClientDocuments(UUID clientId, String query, int limit,
+                                                        SearchEffort effort, ResultContent content) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Client not found");
         }
+        return searchDocuments(clientId, query, limit, effort, content);
+    }
 
-        return ranges.stream()
-                .map(r -> String.join(" ", Arrays.copyOfRange(words, r[0], r[1])))
-                .toList();
+    public DocumentResponse getDocument(UUID id) {
+        return documentRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
     }
 
-    public List<SearchResultItem> searchDocuments(String query) {
-        Map<UUID, Double> semanticScores   = fetchSemanticScores(query);
-        Map<UUID, Double> rawKeywordScores = fetchRawKeywordScores(query);
-        List<Map.Entry<UUID, Double>> ranked = rankDocuments(semanticScores, rawKeywordScores);
+    /** Searches every client's documents when {@code clientId} is null. */
+    private List<SearchResultItem> searchDocuments(UUID clientId, String query, int limit, SearchEffort effort,
+                                                   ResultContent content) {
+        int candidates = (int) Math.min(Integer.MAX_VALUE, (long) limit * CANDIDATES_PER_RESULT);
+        if (ranking == Ranking.SQL && semanticSearchRouter.runsOnHalfvecIndex(clientId)) {
+            return searchDocumentsInDatabase(clientId, query, limit, candidates, effort, content);
+        }
+        CompletableFuture<Map<UUID, Double>> semantic =
+                searchFanOut.fork("semantic", () -> fetchSemanticScores(clientId, query, candidates, effort), Map.of());
+        CompletableFuture<Map<UUID, Double>> keyword =
+                searchFanOut.fork("keyword", () -> fetchRawKeywordScores(clientId, query, candidates), Map.of());
+        Map<UUID, Double> semanticScores   = semantic.join();
+        Map<UUID, Double> rawKeywordScores = keyword.join();
+        List<Map.Entry<UUID, Double>> ranked = rankDocuments(semanticScores, rawKeywordScores, limit);
+        if (content == ResultContent.SNIPPET) {
+            return toSnippetResults(ranked, query);
+        }
 
         Map<UUID, Document> docs = documentRepository.findAllById(
                         ranked.stream().map(Map.Entry::getKey).toList())
@@ -153,10 +283,64 @@ public class DocumentService {
                 .toList();
     }
 
-    private Map<UUID, Double> fetchSemanticScores(String query) {
-        String queryVec = embeddingToString(embeddingService.embed(query));
+    /**
+     * Results for ranked documents with their best-matching chunk in place of their content,
+     * loaded in one query that never reads document bodies.
+     */
+    private List<SearchResultItem> toSnippetResults(List<Map.Entry<UUID, Double>> ranked, String query) {
+        if (ranked.isEmpty()) return List.of();
+        Map<UUID, SnippetMatch> snippets = documentRepository.findSnippets(
+                        ranked.stream().map(Map.Entry::getKey).toList(), queryEmbeddingCache.embed(query), query)
+                .stream()
+                .collect(Collectors.toMap(SnippetMatch::id, s -> s));
+
+        return ranked.stream()
+                .<SearchResultItem>map(e -> {
+                    SnippetMatch s = snippets.get(e.getKey());
+                    log.info("Document '{}' matched '{}' score={}", s.title(), query, e.getValue());
+                    return SearchResultItem.fromSnippet(s.id(), s.clientId(), s.title(), s.createdAt(),
+                            s.snippet(), e.getValue());
+                })
+                .toList();
+    }
+
+    /**
+     * {@link #searchDocuments(UUID, String, int, SearchEffort, ResultContent)} as a single
+     * statement: both legs, the ranking and the result columns come back in one round-trip
+     * instead of three. The legs share that statement, so a failure fails the search rather
+     * than falling back to one leg. An adaptive effort reruns it deeper while fewer than
+     * {@code limit} documents qualify.
+     */
+    private List<SearchResultItem> searchDocumentsInDatabase(UUID clientId, String query, int limit,
+                                                             int candidates, SearchEffort effort,
+                                                             ResultContent content) {
+        float[] queryEmbedding = queryEmbeddingCache.embed(query);
+        boolean snippets = content == ResultContent.SNIPPET;
+        // The whole statement is rerun only while the page is short and a deeper chunk scan could add to it
+        HybridResult result = SemanticSearchRouter.deepening(effort, true,
+                e -> documentRepository.findTopDocumentsHybrid(clientId, queryEmbedding, query, limit, candidates,
+                        e.efSearch(candidates), e.chunkCandidates(candidates), HYBRID_WEIGHTS, snippets),
+                r -> r.semanticShort() && r.matches().size() < limit);
+        return result.matches().stream()
+                .<SearchResultItem>map(m -> {
+                    log.info("Document '{}' matched '{}' score={}", m.title(), query, m.score());
+                    return snippets
+                            ? SearchResultItem.fromSnippet(m.id(), m.clientId(), m.title(), m.createdAt(),
+                                    m.snippet(), m.score())
+                            : SearchResultItem.fromDocument(
+                                    new DocumentResponse(m.id(), m.clientId(), m.title(), m.content(), m.createdAt()),
+                                    m.score());
+                })
+                .toList();
+    }
+
+    private Map<UUID, Double> fetchSemanticScores(UUID clientId, String query, int limit, SearchEffort effort) {
+        float[] queryEmbedding = queryEmbeddingCache.embed(query);
+        List<Object[]> rows = clientId == null
+                ? semanticSearchRouter.findTopDocuments(queryEmbedding, limit, effort)
+                : semanticSearchRouter.findTopDocumentsForClient(clientId, queryEmbedding, limit, effort);
         Map<UUID, Double> scores = new HashMap<>();
-        for (Object[] row : chunkRepository.findTopDocumentsByEmbedding(queryVec)) {
+        for (Object[] row : rows) {
             double score = ((Number) row[1]).doubleValue();
             if (Double.isFinite(score)) {
                 scores.put((UUID) row[0], score);
@@ -165,38 +349,58 @@ public class DocumentService {
         return scores;
     }
 
-    private Map<UUID, Double> fetchRawKeywordScores(String query) {
+    private Map<UUID, Double> fetchRawKeywordScores(UUID clientId, String query, int limit) {
+        List<Object[]> rows = clientId == null
+                ? documentRepository.findDocumentIdsByKeyword(query, limit)
+                : documentRepository.findDocumentIdsByKeywordForClient(clientId, query, limit);
         Map<UUID, Double> scores = new HashMap<>();
-        for (Object[] row : documentRepository.findDocumentIdsByKeyword(query)) {
+        for (Object[] row : rows) {
             scores.put((UUID) row[0], ((Number) row[1]).doubleValue());
         }
         return scores;
     }
 
+    /**
+     * Scores every candidate and keeps the best {@code limit} in a bounded min-heap, so ranking
+     * costs O(n log limit) rather than a sort of the whole candidate union.
+     */
     private List<Map.Entry<UUID, Double>> rankDocuments(Map<UUID, Double> semanticScores,
-                                                        Map<UUID, Double> rawKeywordScores) {
+                                                        Map<UUID, Double> rawKeywordScores,
+                                                        int limit) {
         Map<UUID, Double> keywordScores = normaliseKeywordScores(rawKeywordScores);
 
         Set<UUID> allDocIds = new HashSet<>(semanticScores.keySet());
         allDocIds.addAll(keywordScores.keySet());
 
-        return allDocIds.stream()
-                .map(docId -> {
-                    double semantic = semanticScores.getOrDefault(docId, 0.0);
-                    double keyword  = keywordScores.getOrDefault(docId, 0.0);
-                    double score    = KEYWORD_WEIGHT * keyword + (1 - KEYWORD_WEIGHT) * semantic;
-                    // tsvector keyword matches are always relevant (no false positives), so floor
-                    // their score at the threshold rather than letting the semantic deficit drag
-                    // them below it. A combined semantic + keyword result will naturally score
-                    // above this floor and rank higher, preserving the intended hierarchy.
-                    if (rawKeywordScores.containsKey(docId) && score < SIMILARITY_THRESHOLD) {
-                        score = SIMILARITY_THRESHOLD;
-                    }
-                    return Map.entry(docId, score);
-                })
-                .filter(e -> e.getValue() >= SIMILARITY_THRESHOLD)
-                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
-                .toList();
+        // Head is the worst of the current top-K
+        PriorityQueue<Map.Entry<UUID, Double>> topK =
+                new PriorityQueue<>(Math.min(limit, allDocIds.size()) + 1, BY_RANK.reversed());
+
+        for (UUID docId : allDocIds) {
+            double semantic = semanticScores.getOrDefault(docId, 0.0);
+            double keyword  = keywordScores.getOrDefault(docId, 0.0);
+            double score    = KEYWORD_WEIGHT * keyword + (1 - KEYWORD_WEIGHT) * semantic;
+            // tsvector keyword matches are always relevant (no false positives), so floor
+            // their score at the threshold rather than letting the semantic deficit drag
+            // them below it. A combined semantic + keyword result will naturally score
+            // above this floor and rank higher, preserving the intended hierarchy.
+            if (rawKeywordScores.containsKey(docId) && score < SIMILARITY_THRESHOLD) {
+                score = SIMILARITY_THRESHOLD;
+            }
+            if (score < SIMILARITY_THRESHOLD) continue;
+
+            Map.Entry<UUID, Double> entry = Map.entry(docId, score);
+            if (topK.size() < limit) {
+                topK.add(entry);
+            } else if (limit > 0 && BY_RANK.compare(entry, topK.peek()) < 0) {
+                topK.poll();
+                topK.add(entry);
+            }
+        }
+
+        List<Map.Entry<UUID, Double>> ranked = new ArrayList<>(topK);
+        ranked.sort(BY_RANK);
+        return ranked;
     }
 
     /**
@@ -216,12 +420,6 @@ public class DocumentService {
         return result;
     }
 
-    private static String embeddingToString(float[] v) {
-        StringJoiner sj = new StringJoiner(",", "[", "]");
-        for (float f : v) sj.add(String.valueOf(f));
-        return sj.toString();
-    }
-
     public DocumentResponse toResponse(Document document) {
         return new DocumentResponse(
                 document.getId(),
@@ -2,52 +2,192 @@ package com.baz.searchapi.service;
 
 import ai.djl.huggingface.tokenizers.Encoding;
 import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.djl.huggingface.tokenizers.jni.CharSpan;
+import ai.onnxruntime.NodeInfo;
 import ai.onnxruntime.OnnxTensor;
 import ai.onnxruntime.OrtEnvironment;
 import ai.onnxruntime.OrtException;
-import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+import ai.onnxruntime.TensorInfo;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class EmbeddingService {
 
     private static final Logger log = LoggerFactory.getLogger(EmbeddingService.class);
+    private static final String FP32_MODEL_FILE = "model.onnx";
+    private static final String PARITY_REFERENCE = "embedding/parity-reference.txt";
+
+    /** Longest input the model's position embeddings cover, [CLS] and [SEP] included. */
+    public static final int MAX_SEQUENCE_LENGTH = 512;
+
+    /** Which export of the model to serve. INT8 is dynamically quantized: smaller and faster on CPU. */
+    public enum ModelVariant { FP32, INT8 }
 
     private final String modelDir;
+    private final int maxBatchSize;
+    private final OrtSessionPool.Settings sessionSettings;
+    private final ModelVariant modelVariant;
+    private final String int8ModelFile;
+    private final boolean parityCheck;
+    private final double parityMinCosine;
+    private final VectorOps vectorOps;
 
     private OrtEnvironment env;
-    private OrtSession session;
+    private OrtSessionPool sessions;
     private HuggingFaceTokenizer tokenizer;
+    private HuggingFaceTokenizer chunkingTokenizer;
+    private long clsTokenId;
+    private long sepTokenId;
+    private String outputName;
+    private int hiddenSize;
 
-    public EmbeddingService(@Value("${embedding.model.dir:models/all-MiniLM-L6-v2}") String modelDir) {
+    public EmbeddingService(@Value("${embedding.model.dir:models/all-MiniLM-L6-v2}") String modelDir,
+                            @Value("${embedding.max-batch-size:32}") int maxBatchSize,
+                            @Value("${embedding.session.pool-size:1}") int poolSize,
+                            @Value("${embedding.session.intra-op-threads:0}") int intraOpThreads,
+                            @Value("${embedding.session.inter-op-threads:1}") int interOpThreads,
+                            @Value("${embedding.session.optimization-level:ALL_OPT}") OptLevel optimizationLevel,
+                            @Value("${embedding.session.execution-mode:SEQUENTIAL}") ExecutionMode executionMode,
+                            @Value("${embedding.session.cpu-memory-arena:true}") boolean cpuMemoryArena,
+                            @Value("${embedding.session.memory-pattern:true}") boolean memoryPattern,
+                            @Value("${embedding.model.variant:FP32}") ModelVariant modelVariant,
+                            @Value("${embedding.model.int8-file:model_quint8_avx2.onnx}") String int8ModelFile,
+                            @Value("${embedding.model.parity.enabled:true}") boolean parityCheck,
+                            @Value("${embedding.model.parity.min-cosine:0.98}") double parityMinCosine,
+                            VectorOps vectorOps) {
         this.modelDir = modelDir;
+        this.maxBatchSize = maxBatchSize;
+        this.sessionSettings = new OrtSessionPool.Settings(poolSize, intraOpThreads, interOpThreads,
+                optimizationLevel, executionMode, cpuMemoryArena, memoryPattern);
+        this.modelVariant = modelVariant;
+        this.int8ModelFile = int8ModelFile;
+        this.parityCheck = parityCheck;
+        this.parityMinCosine = parityMinCosine;
+        this.vectorOps = vectorOps;
     }
 
     @PostConstruct
     public void init() throws Exception {
         Path dir = Path.of(modelDir);
-        Path modelPath = dir.resolve("model.onnx");
+        Path fp32ModelPath = dir.resolve(FP32_MODEL_FILE);
+        Path modelPath = modelVariant == ModelVariant.INT8 ? dir.resolve(int8ModelFile) : fp32ModelPath;
         Path tokenizerPath = dir.resolve("tokenizer.json");
 
         env = OrtEnvironment.getEnvironment();
-        session = env.createSession(modelPath.toString());
-        log.info("ONNX session loaded");
-
         tokenizer = HuggingFaceTokenizer.newInstance(tokenizerPath);
+        // Token-based chunking needs the whole document's tokens, so this instance never truncates
+        chunkingTokenizer = HuggingFaceTokenizer.builder()
+                .optTokenizerPath(tokenizerPath)
+                .optAddSpecialTokens(false)
+                .optTruncation(false)
+                .optPadding(false)
+                .build();
+        long[] boundaryTokens = boundaryTokenIds(tokenizer.encode(""));
+        clsTokenId = boundaryTokens[0];
+        sepTokenId = boundaryTokens[1];
         log.info("Tokenizer loaded from {}", tokenizerPath);
+
+        sessions = new OrtSessionPool(env, modelPath.toString(), sessionSettings);
+        // Hidden states are written into a pre-allocated buffer, so the output's name and width are needed up front
+        Map.Entry<String, NodeInfo> output = sessions.withSession((session, buffers) ->
+                session.getOutputInfo().entrySet().iterator().next());
+        outputName = output.getKey();
+        long[] outputDims = ((TensorInfo) output.getValue().getInfo()).getShape();
+        hiddenSize = (int) outputDims[outputDims.length - 1];
+        log.info("Serving {} embedding model {}", modelVariant, modelPath);
+
+        if (modelVariant == ModelVariant.INT8 && parityCheck) {
+            verifyParity(fp32ModelPath);
+        }
+    }
+
+    /**
+     * Embeds the reference sentences with both the served model and the fp32 model and refuses
+     * to start if any pair's cosine similarity is below embedding.model.parity.min-cosine. This
+     * catches a bad quantized export, or a quantization kernel that doesn't suit the host CPU,
+     * before it silently degrades search quality. The fp32 session only exists for the check.
+     */
+    private void verifyParity(Path fp32ModelPath) throws Exception {
+        List<String> reference = loadParityReference();
+        OrtSessionPool.Settings single = new OrtSessionPool.Settings(1, sessionSettings.intraOpThreads(),
+                sessionSettings.interOpThreads(), sessionSettings.optimizationLevel(), sessionSettings.executionMode(),
+                sessionSettings.cpuMemoryArena(), sessionSettings.memoryPattern());
+
+        List<float[]> expected;
+        try (OrtSessionPool fp32 = new OrtSessionPool(env, fp32ModelPath.toString(), single)) {
+            expected = runBatch(reference, fp32);
+        }
+        List<float[]> actual = runBatch(reference, sessions);
+
+        double[] cosines = pairwiseCosine(expected, actual);
+        double min = Arrays.stream(cosines).min().orElse(1.0);
+        double mean = Arrays.stream(cosines).average().orElse(1.0);
+        log.info("{} parity vs fp32 over {} reference sentences: min cosine={}, mean cosine={}",
+                modelVariant, reference.size(), String.format("%.4f", min), String.format("%.4f", mean));
+
+        if (min < parityMinCosine) {
+            sessions.close();
+            throw new IllegalStateException(String.format(
+                    "%s embedding model drifts from fp32: min cosine %.4f is below embedding.model.parity.min-cosine=%.4f",
+                    modelVariant, min, parityMinCosine));
+        }
+    }
+
+    private static List<String> loadParityReference() throws IOException {
+        try (InputStream in = new ClassPathResource(PARITY_REFERENCE).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    /**
+     * Cosine similarity of each pair of vectors at the same index.
+     */
+    static double[] pairwiseCosine(List<float[]> expected, List<float[]> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalArgumentException("Reference and candidate embedding counts differ");
+        }
+        double[] cosines = new double[expected.size()];
+        for (int i = 0; i < cosines.length; i++) {
+            float[] a = expected.get(i);
+            float[] b = actual.get(i);
+            double dot = 0, normA = 0, normB = 0;
+            for (int j = 0; j < a.length; j++) {
+                dot   += (double) a[j] * b[j];
+                normA += (double) a[j] * a[j];
+                normB += (double) b[j] * b[j];
+            }
+            cosines[i] = (normA == 0 || normB == 0) ? 0.0 : dot / Math.sqrt(normA * normB);
+        }
+        return cosines;
     }
 
     @PreDestroy
     public void destroy() throws OrtException {
-        if (session != null) session.close();
+        if (sessions != null) sessions.close();
+        if (tokenizer != null) tokenizer.close();
+        if (chunkingTokenizer != null) chunkingTokenizer.close();
         if (env != null) env.close();
     }
 
@@ -55,66 +195,220 @@ public class EmbeddingService {
      * Generate a 384-dimensional embedding for the given text.
      */
     public float[] embed(String text) {
+        return embedBatch(List.of(text)).getFirst();
+    }
+
+    /**
+     * Generate embeddings for several texts, returned in input order.
+     * Texts are run through the model in batches of up to maxBatchSize: each batch is
+     * padded into a single [batch, seq_len] tensor and costs one session.run call.
+     * Concurrent callers run on separate pooled sessions, up to embedding.session.pool-size at once.
+     */
+    public List<float[]> embedBatch(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += maxBatchSize) {
+            int to = Math.min(from + maxBatchSize, texts.size());
+            embeddings.addAll(runBatch(texts.subList(from, to), sessions));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Generate embeddings for inputs that are already tokenized, returned in input order.
+     * Each array is a complete model input ([CLS] ... [SEP]) as produced by
+     * {@link #withSpecialTokens}; nothing is re-tokenized or truncated.
+     */
+    public List<float[]> embedTokenIds(List<long[]> inputIds) {
+        List<float[]> embeddings = new ArrayList<>(inputIds.size());
+        for (int from = 0; from < inputIds.size(); from += maxBatchSize) {
+            int to = Math.min(from + maxBatchSize, inputIds.size());
+            embeddings.addAll(infer(inputIds.subList(from, to), null, null, sessions));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Tokenize text for chunking: no special tokens, no truncation, and each token's character
+     * span in the source text so chunk boundaries can be mapped back to substrings.
+     */
+    public TokenizedText tokenizeForChunking(String text) {
+        return toTokenizedText(text, chunkingTokenizer.encode(text, false, false));
+    }
+
+    /**
+     * The encoding's token spans count code points, but chunks are cut with {@link String#substring},
+     * which takes UTF-16 indexes; the two differ after any character outside the BMP (emoji, some
+     * CJK). Spans come in text order, so each is converted by walking on from the previous one.
+     */
+    static TokenizedText toTokenizedText(String text, Encoding encoding) {
+        CharSpan[] spans = encoding.getCharTokenSpans();
+        int[] starts = new int[spans.length];
+        int[] ends = new int[spans.length];
+        int codePoint = 0;
+        int charIndex = 0;
+        for (int i = 0; i < spans.length; i++) {
+            int start = spans[i].getStart();
+            int end = spans[i].getEnd();
+            if (start < codePoint) {
+                // Overlapping spans: walk again from the start of the text
+                codePoint = 0;
+                charIndex = 0;
+            }
+            charIndex = text.offsetByCodePoints(charIndex, start - codePoint);
+            starts[i] = charIndex;
+            charIndex = text.offsetByCodePoints(charIndex, end - start);
+            ends[i] = charIndex;
+            codePoint = end;
+        }
+        return new TokenizedText(encoding.getIds(), starts, ends);
+    }
+
+    /**
+     * Model input for tokens [from, to) of a {@link #tokenizeForChunking} result: [CLS] tokens [SEP].
+     */
+    public long[] withSpecialTokens(long[] tokenIds, int from, int to) {
+        long[] input = new long[to - from + 2];
+        input[0] = clsTokenId;
+        System.arraycopy(tokenIds, from, input, 1, to - from);
+        input[input.length - 1] = sepTokenId;
+        return input;
+    }
+
+    /**
+     * The [CLS] and [SEP] ids, read from the encoding of an empty input: its first and last
+     * attended tokens. Padding configured in tokenizer.json can surround them, so the ends of
+     * the id array are not enough.
+     */
+    static long[] boundaryTokenIds(Encoding specialOnly) {
+        long[] ids = specialOnly.getIds();
+        long[] attended = specialOnly.getAttentionMask();
+        long[] special = specialOnly.getSpecialTokenMask();
+        int first = 0;
+        while (first < ids.length && attended[first] == 0) first++;
+        int last = ids.length - 1;
+        while (last >= 0 && attended[last] == 0) last--;
+        if (first >= last || special[first] == 0 || special[last] == 0) {
+            throw new IllegalStateException("Tokenizer does not wrap input in special tokens: "
+                    + Arrays.toString(specialOnly.getTokens()));
+        }
+        return new long[]{ids[first], ids[last]};
+    }
+
+    /** Token ids with the character span each token covers in the source text. */
+    public record TokenizedText(long[] ids, int[] charStarts, int[] charEnds) {}
+
+    private List<float[]> runBatch(List<String> texts, OrtSessionPool pool) {
+        Encoding[] encodings = tokenizer.batchEncode(texts);
+        List<long[]> inputIds = new ArrayList<>(encodings.length);
+        List<long[]> attentionMasks = new ArrayList<>(encodings.length);
+        List<long[]> tokenTypeIds = new ArrayList<>(encodings.length);
+        for (Encoding encoding : encodings) {
+            inputIds.add(encoding.getIds());
+            attentionMasks.add(encoding.getAttentionMask());
+            tokenTypeIds.add(encoding.getTypeIds());
+        }
+        return infer(inputIds, attentionMasks, tokenTypeIds, pool);
+    }
+
+    /**
+     * Runs one batch through a pooled session. Rows are right-padded with zeros (the [PAD] id)
+     * to the longest row; their attention mask stays zero over the padding, which excludes it
+     * from both attention and pooling. A null attentionMasks means every row token is attended,
+     * a null tokenTypeIds means a single segment (all zero).
+     *
+     * <p>Inputs are written into the session's direct buffers and the hidden states land in its
+     * pinned output buffer, so pooling reads them straight from native memory. Pooling therefore
+     * runs while the session is still held; it is a single pass over the output and small next
+     * to inference.
+     */
+    private List<float[]> infer(List<long[]> inputIds, List<long[]> attentionMasks, List<long[]> tokenTypeIds,
+                                OrtSessionPool pool) {
+        int batchSize = inputIds.size();
+        int seqLen = 0;
+        for (long[] ids : inputIds) {
+            seqLen = Math.max(seqLen, ids.length);
+        }
+        int rowLength = seqLen;
+        long[] inputShape = {batchSize, seqLen};
+        long[] outputShape = {batchSize, seqLen, hiddenSize};
+
         try {
-            Encoding encoding = tokenizer.encode(text);
-            long[] inputIds = encoding.getIds();
-            long[] attentionMask = encoding.getAttentionMask();
-            long[] tokenTypeIds = encoding.getTypeIds();
-
-            try (OnnxTensor inputIdsTensor = OnnxTensor.createTensor(env, new long[][]{inputIds});
-                 OnnxTensor attentionMaskTensor = OnnxTensor.createTensor(env, new long[][]{attentionMask});
-                 OnnxTensor tokenTypeIdsTensor = OnnxTensor.createTensor(env, new long[][]{tokenTypeIds})) {
-
-                Map<String, OnnxTensor> inputs = Map.of(
-                        "input_ids", inputIdsTensor,
-                        "attention_mask", attentionMaskTensor,
-                        "token_type_ids", tokenTypeIdsTensor
-                );
-
-                try (OrtSession.Result result = session.run(inputs)) {
-                    // Output shape: [1, seq_len, 384] — last_hidden_state
-                    float[][][] output = (float[][][]) result.get(0).getValue();
-                    float[] pooled = meanPooling(output[0], attentionMask);
-                    return normalize(pooled);
+            return pool.withSession((session, buffers) -> {
+                LongBuffer ids = buffers.inputIds(batchSize * rowLength);
+                LongBuffer mask = buffers.attentionMask(batchSize * rowLength);
+                LongBuffer types = buffers.tokenTypeIds(batchSize * rowLength);
+                for (int b = 0; b < batchSize; b++) {
+                    int offset = b * rowLength;
+                    int length = inputIds.get(b).length;
+                    ids.put(offset, inputIds.get(b));
+                    if (attentionMasks != null) {
+                        mask.put(offset, attentionMasks.get(b));
+                    } else {
+                        fill(mask, offset, offset + length, 1L);
+                    }
+                    if (tokenTypeIds != null) {
+                        types.put(offset, tokenTypeIds.get(b));
+                    } else {
+                        fill(types, offset, offset + length, 0L);
+                    }
+                    // The buffers are reused, so padding must be cleared explicitly
+                    fill(ids, offset + length, offset + rowLength, 0L);
+                    fill(mask, offset + length, offset + rowLength, 0L);
+                    fill(types, offset + length, offset + rowLength, 0L);
                 }
-            }
+                FloatBuffer hidden = buffers.hiddenStates(batchSize * rowLength * hiddenSize);
+
+                try (OnnxTensor inputIdsTensor = OnnxTensor.createTensor(env, ids, inputShape);
+                     OnnxTensor attentionMaskTensor = OnnxTensor.createTensor(env, mask, inputShape);
+                     OnnxTensor tokenTypeIdsTensor = OnnxTensor.createTensor(env, types, inputShape);
+                     OnnxTensor hiddenTensor = OnnxTensor.createTensor(env, hidden, outputShape)) {
+
+                    Map<String, OnnxTensor> inputs = Map.of(
+                            "input_ids", inputIdsTensor,
+                            "attention_mask", attentionMaskTensor,
+                            "token_type_ids", tokenTypeIdsTensor
+                    );
+                    // Output shape: [batch, seq_len, 384] — last_hidden_state, written into hidden
+                    session.run(inputs, Map.of(outputName, hiddenTensor)).close();
+                }
+
+                List<float[]> embeddings = new ArrayList<>(batchSize);
+                for (int b = 0; b < batchSize; b++) {
+                    embeddings.add(vectorOps.normalize(meanPooling(hidden, mask, b * rowLength, rowLength)));
+                }
+                return embeddings;
+            });
         } catch (OrtException e) {
             throw new RuntimeException("Embedding inference failed", e);
         }
     }
 
-    private float[] meanPooling(float[][] tokenEmbeddings, long[] attentionMask) {
-        int dim = tokenEmbeddings[0].length;
-        float[] sum = new float[dim];
-        float maskSum = 0;
+    private static void fill(LongBuffer buffer, int from, int to, long value) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, value);
+        }
+    }
+
+    /**
+     * Mean of the hidden states of the attended tokens in one row, read from the
+     * [batch, seq_len, hidden] output one token vector at a time.
+     */
+    private float[] meanPooling(FloatBuffer hidden, LongBuffer attentionMask, int rowOffset, int seqLen) {
+        float[] sum = new float[hiddenSize];
+        float[] token = new float[hiddenSize];
+        int maskSum = 0;
 
-        for (int i = 0; i < tokenEmbeddings.length; i++) {
-            if (attentionMask[i] == 1) {
-                for (int j = 0; j < dim; j++) {
-                    sum[j] += tokenEmbeddings[i][j];
-                }
-                maskSum += 1;
+        for (int i = 0; i < seqLen; i++) {
+            if (attentionMask.get(rowOffset + i) == 1) {
+                hidden.get((rowOffset + i) * hiddenSize, token);
+                vectorOps.add(sum, token);
+                maskSum++;
             }
         }
 
         if (maskSum > 0) {
-            for (int j = 0; j < dim; j++) {
-                sum[j] /= maskSum;
-            }
+            vectorOps.divide(sum, maskSum);
         }
         return sum;
     }
-
-    private float[] normalize(float[] v) {
-        float norm = 0;
-        for (float f : v) norm += f * f;
-        norm = (float) Math.sqrt(norm);
-        if (norm == 0) return v;
-
-        float[] result = new float[v.length];
-        for (int i = 0; i < v.length; i++) {
-            result[i] = v[i] / norm;
-        }
-        return result;
-    }
 }
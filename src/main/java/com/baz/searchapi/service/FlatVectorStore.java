@@ -0,0 +1,232 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ChunksInsertedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Chunk embeddings in a memory-mapped file of fixed-size records, scanned exhaustively.
+ *
+ * <p>Each record is the chunk id and document id (two UUIDs as 4 longs) followed by the 384
+ * floats of the embedding, 1,568 bytes in all. The file is mapped in fixed regions, so appending
+ * never remaps what is already there. The vectors live in the page cache rather than on the
+ * heap. An exact scan has perfect recall and, for a few tens of thousands of chunks, beats a
+ * network round-trip to an approximate index.
+ *
+ * <p>The file is a cache of the {@code chunks} table: it is truncated and rebuilt from the table
+ * when the application is ready, and then appended to as chunk inserts commit. Appends are
+ * serialised; scans run concurrently with them and see every record published before they
+ * started. Records are never rewritten, so removed documents are filtered out of results until
+ * the next rebuild.
+ *
+ * <p>Single-node only: after the rebuild the file only receives this instance's inserts, so
+ * chunks written by other instances are missing from its results until a restart. Enable it
+ * only where one instance does all the writing.
+ */
+@Service
+public class FlatVectorStore implements VectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FlatVectorStore.class);
+    private static final int DIMENSION = 384;
+    private static final int ID_BYTES = 4 * Long.BYTES;
+    static final int RECORD_BYTES = ID_BYTES + DIMENSION * Float.BYTES;
+    private static final int RECORDS_PER_REGION = 16_384;   // ~25 MB per mapped region
+    private static final long REGION_BYTES = (long) RECORDS_PER_REGION * RECORD_BYTES;
+    /** Records per scan task; small stores are scanned on the calling thread. */
+    private static final int SCAN_SLICE = 8_192;
+
+    private final ChunkRepository chunkRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final VectorOps vectorOps;
+    private final ExecutorService scanExecutor;
+    private final boolean enabled;
+    private final Path path;
+
+    private final Set<UUID> storedChunks = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> removedDocuments = ConcurrentHashMap.newKeySet();
+    private FileChannel channel;
+    private volatile Region[] regions = new Region[0];
+    private volatile int count;
+    private volatile boolean ready;
+
+    public FlatVectorStore(ChunkRepository chunkRepository,
+                           PlatformTransactionManager transactionManager,
+                           VectorOps vectorOps,
+                           @Qualifier("vectorScanExecutor") ExecutorService scanExecutor,
+                           @Value("${vector-index.flat.enabled:false}") boolean enabled,
+                           @Value("${vector-index.flat.path:data/chunk-vectors.bin}") Path path) {
+        this.chunkRepository = chunkRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.vectorOps = vectorOps;
+        this.scanExecutor = scanExecutor;
+        this.enabled = enabled;
+        this.path = path;
+    }
+
+    /** True once the store is enabled and rebuilt from the table. */
+    @Override
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    /** Number of chunks stored. */
+    public int size() {
+        return count;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open flat vector store " + path, e);
+        }
+        readOnlyTx.executeWithoutResult(status -> chunkRepository.scanEmbeddings(this::append));
+        ready = true;
+        log.info("Flat vector store loaded: {} chunks in {} ms ({})", count,
+                (System.nanoTime() - start) / 1_000_000, path);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChunksInserted(ChunksInsertedEvent event) {
+        add(event.chunks());
+    }
+
+    @Override
+    public void add(List<Chunk> chunks) {
+        if (!enabled) return;
+        for (Chunk chunk : chunks) {
+            append(chunk.getId(), chunk.getDocument().getId(), chunk.getEmbedding());
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> documentIds) {
+        removedDocuments.addAll(documentIds);
+    }
+
+    /**
+     * Exact top documents by best chunk cosine similarity. Large stores are scanned in slices on
+     * the scan executor.
+     */
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit) {
+        Region[] mapped = regions;
+        int total = Math.min(count, mapped.length * RECORDS_PER_REGION);
+
+        Map<UUID, Double> best;
+        if (total <= SCAN_SLICE) {
+            best = scan(mapped, queryEmbedding, 0, total);
+        } else {
+            List<CompletableFuture<Map<UUID, Double>>> slices = new ArrayList<>();
+            for (int from = 0; from < total; from += SCAN_SLICE) {
+                int sliceFrom = from;
+                int sliceTo = Math.min(from + SCAN_SLICE, total);
+                slices.add(CompletableFuture.supplyAsync(
+                        () -> scan(mapped, queryEmbedding, sliceFrom, sliceTo), scanExecutor));
+            }
+            best = new HashMap<>();
+            for (CompletableFuture<Map<UUID, Double>> slice : slices) {
+                slice.join().forEach((doc, score) -> best.merge(doc, score, Math::max));
+            }
+        }
+
+        best.keySet().removeAll(removedDocuments);
+        return VectorIndex.topDocuments(best, limit);
+    }
+
+    /** Best score per document over records [from, to). */
+    private Map<UUID, Double> scan(Region[] mapped, float[] query, int from, int to) {
+        Map<UUID, Double> best = new HashMap<>();
+        float[] vector = new float[DIMENSION];
+        for (int record = from; record < to; record++) {
+            Region region = mapped[record / RECORDS_PER_REGION];
+            int offset = (record % RECORDS_PER_REGION) * RECORD_BYTES;
+            // Bulk copy into a reused array so the dot product runs on the SIMD kernels
+            region.floats().get((offset + ID_BYTES) / Float.BYTES, vector);
+            double score = vectorOps.dot(query, vector);
+            UUID documentId = new UUID(region.bytes().getLong(offset + 2 * Long.BYTES),
+                    region.bytes().getLong(offset + 3 * Long.BYTES));
+            best.merge(documentId, score, Math::max);
+        }
+        return best;
+    }
+
+    private synchronized void append(UUID chunkId, UUID documentId, float[] embedding) {
+        if (channel == null || !storedChunks.add(chunkId)) return;
+        int record = count;
+        Region region = region(record / RECORDS_PER_REGION);
+        int offset = (record % RECORDS_PER_REGION) * RECORD_BYTES;
+        region.bytes().putLong(offset, chunkId.getMostSignificantBits());
+        region.bytes().putLong(offset + Long.BYTES, chunkId.getLeastSignificantBits());
+        region.bytes().putLong(offset + 2 * Long.BYTES, documentId.getMostSignificantBits());
+        region.bytes().putLong(offset + 3 * Long.BYTES, documentId.getLeastSignificantBits());
+        region.floats().put((offset + ID_BYTES) / Float.BYTES, embedding);
+        // Volatile write: the record is fully written before scans can see it
+        count = record + 1;
+    }
+
+    private Region region(int index) {
+        Region[] mapped = regions;
+        if (index < mapped.length) return mapped[index];
+        try {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_WRITE, index * REGION_BYTES, REGION_BYTES)
+                    .order(ByteOrder.nativeOrder());
+            Region region = new Region(bytes, bytes.asFloatBuffer());
+            Region[] grown = Arrays.copyOf(mapped, index + 1);
+            grown[index] = region;
+            regions = grown;
+            return region;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend flat vector store " + path, e);
+        }
+    }
+
+    /**
+     * One mapped region, with a float view over the same memory. Only absolute accessors are
+     * used, so both are safe to share between threads.
+     */
+    private record Region(ByteBuffer bytes, FloatBuffer floats) {}
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
@@ -0,0 +1,134 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ChunksInsertedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process HNSW index over all chunk embeddings, answering semantic search without a
+ * database round-trip when {@code vector-index.backend=HNSW}.
+ *
+ * <p>The graph is built from the {@code chunks} table once the application is ready. Until
+ * then {@link #isEnabled()} is false and searches keep going to pgvector. Chunks inserted
+ * afterwards are added as their transaction commits, via {@link ChunksInsertedEvent}. A chunk
+ * seen both by the startup scan and by an insert event is indexed once.
+ *
+ * <p>Every node holds a 384-float vector, so the heap needs roughly 1.7 KB per chunk plus its
+ * links. The graph has no removal: removed documents are remembered and filtered out of
+ * results, and their nodes stay until the next restart rebuilds the graph.
+ *
+ * <p>Single-node only: the graph sees the chunks in the table at startup and then only the
+ * inserts this instance commits. Chunks written by other instances are missing from its results
+ * until a restart rebuilds the graph, so deployments with more than one writer should stay on
+ * {@code PGVECTOR}.
+ */
+@Service
+public class HnswChunkIndex implements VectorIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswChunkIndex.class);
+    private static final int DIMENSION = 384;
+    private static final int CHUNKS_PER_DOCUMENT = 4;
+
+    private final ChunkRepository chunkRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean selected;
+    private final int efSearch;
+    private final HnswIndex<UUID> graph;
+    private final Set<UUID> indexedChunks = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> removedDocuments = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public HnswChunkIndex(ChunkRepository chunkRepository,
+                          PlatformTransactionManager transactionManager,
+                          VectorOps vectorOps,
+                          @Value("${vector-index.backend:PGVECTOR}") Backend backend,
+                          @Value("${vector-index.hnsw.m:16}") int m,
+                          @Value("${vector-index.hnsw.ef-construction:100}") int efConstruction,
+                          @Value("${vector-index.hnsw.ef-search:200}") int efSearch) {
+        this.chunkRepository = chunkRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.selected = backend == Backend.HNSW;
+        this.efSearch = efSearch;
+        this.graph = new HnswIndex<>(DIMENSION, m, efConstruction, vectorOps);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!selected) return;
+        long start = System.nanoTime();
+        readOnlyTx.executeWithoutResult(status -> chunkRepository.scanEmbeddings(this::add));
+        ready = true;
+        log.info("HNSW index loaded: {} chunks in {} ms", graph.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChunksInserted(ChunksInsertedEvent event) {
+        add(event.chunks());
+    }
+
+    @Override
+    public void add(List<Chunk> chunks) {
+        if (!selected) return;
+        for (Chunk chunk : chunks) {
+            add(chunk.getId(), chunk.getDocument().getId(), chunk.getEmbedding());
+        }
+    }
+
+    @Override
+    public void remove(Collection<UUID> documentIds) {
+        removedDocuments.addAll(documentIds);
+    }
+
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit) {
+        return search(queryEmbedding, limit, Math.max(efSearch, limit * CHUNKS_PER_DOCUMENT));
+    }
+
+    /** Uses the effort's candidate count as both the result size and the graph's candidate list. */
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit, SearchEffort effort) {
+        return search(queryEmbedding, limit, Math.max(effort.efSearch(limit), effort.chunkCandidates(limit)));
+    }
+
+    private List<Object[]> search(float[] queryEmbedding, int limit, int chunkCandidates) {
+        Map<UUID, Double> best = new HashMap<>();
+        for (HnswIndex.Scored<UUID> hit : graph.search(queryEmbedding, chunkCandidates, chunkCandidates)) {
+            if (removedDocuments.contains(hit.payload())) continue;
+            best.merge(hit.payload(), (double) hit.similarity(), Math::max);
+        }
+        return VectorIndex.topDocuments(best, limit);
+    }
+
+    int size() {
+        return graph.size();
+    }
+
+    private void add(UUID chunkId, UUID documentId, float[] embedding) {
+        if (indexedChunks.add(chunkId)) {
+            graph.add(embedding, documentId);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.baz.searchapi.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hierarchical navigable small world graph over unit-length vectors, scored by inner product
+ * (equal to cosine similarity for unit vectors).
+ *
+ * <p>Inserts may run concurrently: a node's neighbour list is only modified under that node's
+ * lock stripe, and the entry point under its own lock. Searches take no locks. Every neighbour
+ * list is an immutable {@code int[]} replaced as a whole through a volatile write, so a search
+ * sees either the old or the new list, never a partial one. A node is fully written before
+ * it is linked from anywhere, so a node id reachable through a published list is always
+ * readable.
+ *
+ * <p>Nodes are numbered densely and kept in fixed-size pages, which grow without copying.
+ * There is no removal.
+ */
+final class HnswIndex<T> {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << 18;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int MAX_LEVEL = 16;
+
+    /** Search result: the node's payload and its inner product with the query. */
+    record Scored<T>(T payload, float similarity) {}
+
+    private record EntryPoint(int node, int level) {}
+
+    private static final class Node<T> {
+        final float[] vector;
+        final T payload;
+        /** Neighbour ids per level 0..level; each array is replaced, never modified. */
+        final AtomicReferenceArray<int[]> neighbours;
+
+        Node(float[] vector, T payload, int level) {
+            this.vector = vector;
+            this.payload = payload;
+            this.neighbours = new AtomicReferenceArray<>(level + 1);
+            for (int l = 0; l <= level; l++) {
+                neighbours.set(l, new int[0]);
+            }
+        }
+    }
+
+    private final int dimension;
+    private final int m;
+    private final int maxNeighboursLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final VectorOps ops;
+
+    @SuppressWarnings("unchecked")
+    private final Node<T>[][] pages = new Node[MAX_PAGES][];
+    private final AtomicInteger size = new AtomicInteger();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Object entryLock = new Object();
+    private volatile EntryPoint entryPoint;
+
+    /**
+     * @param m              neighbours kept per node on the upper levels (twice that on level 0)
+     * @param efConstruction candidate list size while linking a new node
+     */
+    HnswIndex(int dimension, int m, int efConstruction, VectorOps ops) {
+        if (m < 2) throw new IllegalArgumentException("m must be at least 2, was " + m);
+        if (efConstruction < m) {
+            throw new IllegalArgumentException("efConstruction must be at least m, was " + efConstruction);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxNeighboursLevel0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.ops = ops;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * Add a unit-length vector. The array is kept by reference and must not be modified afterwards.
+     */
+    void add(float[] vector, T payload) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a " + dimension + "-dimensional vector, got " + vector.length);
+        }
+        int level = randomLevel();
+        Node<T> node = new Node<>(vector, payload, level);
+        int id = store(node);
+
+        EntryPoint entry = entryPoint;
+        if (entry == null) {
+            synchronized (entryLock) {
+                if (entryPoint == null) {
+                    entryPoint = new EntryPoint(id, level);
+                    return;
+                }
+                entry = entryPoint;
+            }
+        }
+
+        int current = entry.node();
+        for (int l = entry.level(); l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, entry.level()); l >= 0; l--) {
+            ScoredHeap nearest = searchLayer(vector, current, efConstruction, l);
+            int[] candidates = nearest.nodesBestFirst();
+            current = candidates[0];
+            int[] selected = selectNeighbours(vector, candidates, maxNeighbours(l));
+            connect(id, selected, l);
+            for (int neighbour : selected) {
+                connect(neighbour, new int[]{id}, l);
+            }
+        }
+
+        if (level > entry.level()) {
+            synchronized (entryLock) {
+                if (level > entryPoint.level()) {
+                    entryPoint = new EntryPoint(id, level);
+                }
+            }
+        }
+    }
+
+    /**
+     * The {@code k} nodes most similar to the query, best first. {@code ef} (at least k) is the
+     * size of the candidate list on level 0: larger is slower and closer to exact.
+     */
+    List<Scored<T>> search(float[] query, int k, int ef) {
+        EntryPoint entry = entryPoint;
+        if (entry == null || k <= 0) return List.of();
+
+        int current = entry.node();
+        for (int l = entry.level(); l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+        ScoredHeap nearest = searchLayer(query, current, Math.max(ef, k), 0);
+        int[] nodes = nearest.nodesBestFirst();
+        int count = Math.min(k, nodes.length);
+        List<Scored<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Node<T> node = node(nodes[i]);
+            results.add(new Scored<>(node.payload, ops.dot(query, node.vector)));
+        }
+        return results;
+    }
+
+    // --- Graph construction ---
+
+    private int store(Node<T> node) {
+        int id = size.getAndIncrement();
+        int page = id >>> PAGE_BITS;
+        if (page >= MAX_PAGES) {
+            throw new IllegalStateException("HNSW index is full");
+        }
+        if (pages[page] == null) {
+            synchronized (pages) {
+                if (pages[page] == null) {
+                    @SuppressWarnings("unchecked")
+                    Node<T>[] fresh = new Node[PAGE_SIZE];
+                    pages[page] = fresh;
+                }
+            }
+        }
+        pages[page][id & (PAGE_SIZE - 1)] = node;
+        return id;
+    }
+
+    /** Merge {@code added} into a node's neighbour list on one level, pruning back to the cap. */
+    private void connect(int id, int[] added, int level) {
+        synchronized (locks[id % LOCK_STRIPES]) {
+            Node<T> node = node(id);
+            int[] existing = node.neighbours.get(level);
+            int[] merged = Arrays.copyOf(existing, existing.length + added.length);
+            int count = existing.length;
+            for (int candidate : added) {
+                if (candidate != id && !contains(existing, candidate)) {
+                    merged[count++] = candidate;
+                }
+            }
+            if (count == existing.length) return;
+            merged = Arrays.copyOf(merged, count);
+
+            int cap = maxNeighbours(level);
+            if (merged.length > cap) {
+                ScoredHeap byScore = ScoredHeap.min(merged.length);
+                for (int n : merged) {
+                    byScore.push(n, ops.dot(node.vector, node(n).vector));
+                }
+                merged = selectNeighbours(node.vector, byScore.nodesBestFirst(), cap);
+            }
+            node.neighbours.set(level, merged);
+        }
+    }
+
+    /**
+     * The neighbour selection heuristic of the HNSW paper: take candidates best first, skipping
+     * any that is closer to an already selected neighbour than to the base vector, so links
+     * spread in different directions. Skipped candidates fill any remaining slots.
+     */
+    private int[] selectNeighbours(float[] base, int[] candidatesBestFirst, int max) {
+        int[] selected = new int[Math.min(max, candidatesBestFirst.length)];
+        int count = 0;
+        int[] skipped = new int[candidatesBestFirst.length];
+        int skippedCount = 0;
+
+        for (int candidate : candidatesBestFirst) {
+            if (count == selected.length) break;
+            float[] vector = node(candidate).vector;
+            float toBase = ops.dot(base, vector);
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (ops.dot(vector, node(selected[i]).vector) > toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+            } else {
+                skipped[skippedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < skippedCount && count < selected.length; i++) {
+            selected[count++] = skipped[i];
+        }
+        return selected;
+    }
+
+    private int maxNeighbours(int level) {
+        return level == 0 ? maxNeighboursLevel0 : m;
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return Math.min(MAX_LEVEL, (int) (-Math.log(u) * levelMultiplier));
+    }
+
+    // --- Search ---
+
+    /** Hill-climb from {@code start} to the most similar node reachable on one level. */
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = ops.dot(query, node(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int n : node(current).neighbours.get(level)) {
+                float similarity = ops.dot(query, node(n).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = n;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Best-first search of one level, keeping the {@code ef} most similar nodes seen. */
+    private ScoredHeap searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet();
+        ScoredHeap candidates = ScoredHeap.max(ef);
+        ScoredHeap results = ScoredHeap.min(ef + 1);
+
+        float startScore = ops.dot(query, node(start).vector);
+        visited.set(start);
+        candidates.push(start, startScore);
+        results.push(start, startScore);
+
+        while (!candidates.isEmpty()) {
+            float score = candidates.topScore();
+            int current = candidates.pop();
+            if (results.size() >= ef && score < results.topScore()) break;
+
+            for (int n : node(current).neighbours.get(level)) {
+                if (visited.get(n)) continue;
+                visited.set(n);
+                float similarity = ops.dot(query, node(n).vector);
+                if (results.size() < ef || similarity > results.topScore()) {
+                    candidates.push(n, similarity);
+                    results.push(n, similarity);
+                    if (results.size() > ef) results.pop();
+                }
+            }
+        }
+        return results;
+    }
+
+    private Node<T> node(int id) {
+        return pages[id >>> PAGE_BITS][id & (PAGE_SIZE - 1)];
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Binary heap of (node, score) pairs in parallel primitive arrays; a max-heap or a min-heap
+     * on score.
+     */
+    static final class ScoredHeap {
+        private final boolean max;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        private ScoredHeap(boolean max, int capacity) {
+            this.max = max;
+            this.nodes = new int[Math.max(1, capacity)];
+            this.scores = new float[nodes.length];
+        }
+
+        static ScoredHeap max(int capacity) {
+            return new ScoredHeap(true, capacity);
+        }
+
+        static ScoredHeap min(int capacity) {
+            return new ScoredHeap(false, capacity);
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!above(score, scores[parent])) break;
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && above(scores[child + 1], scores[child])) child++;
+                if (!above(scores[child], lastScore)) break;
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        /** Drains the heap; returns its nodes from highest to lowest score. */
+        int[] nodesBestFirst() {
+            int[] result = new int[size];
+            if (max) {
+                for (int i = 0; i < result.length; i++) result[i] = pop();
+            } else {
+                for (int i = result.length - 1; i >= 0; i--) result[i] = pop();
+            }
+            return result;
+        }
+
+        private boolean above(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.baz.searchapi.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Direct, native-order buffers backing one session's input and output tensors.
+ *
+ * <p>ONNX Runtime wraps a direct native-order buffer in place instead of copying it, and writes
+ * a pinned output straight into one, so inference needs no Java-heap tensor arrays at all.
+ * Buffers grow to the largest batch seen and are then reused. An instance belongs to exactly
+ * one pooled session and is only touched by the caller currently holding that session.
+ */
+final class InferenceBuffers {
+
+    private LongBuffer inputIds = longs(0);
+    private LongBuffer attentionMask = longs(0);
+    private LongBuffer tokenTypeIds = longs(0);
+    private FloatBuffer hiddenStates = floats(0);
+
+    /** input_ids for {@code count} elements: position 0, limit {@code count}, contents stale. */
+    LongBuffer inputIds(int count) {
+        if (inputIds.capacity() < count) inputIds = longs(count);
+        return inputIds.clear().limit(count);
+    }
+
+    LongBuffer attentionMask(int count) {
+        if (attentionMask.capacity() < count) attentionMask = longs(count);
+        return attentionMask.clear().limit(count);
+    }
+
+    LongBuffer tokenTypeIds(int count) {
+        if (tokenTypeIds.capacity() < count) tokenTypeIds = longs(count);
+        return tokenTypeIds.clear().limit(count);
+    }
+
+    /** Output buffer for {@code count} hidden-state floats, filled by the session run. */
+    FloatBuffer hiddenStates(int count) {
+        if (hiddenStates.capacity() < count) hiddenStates = floats(count);
+        return hiddenStates.clear().limit(count);
+    }
+
+    private static LongBuffer longs(int count) {
+        return ByteBuffer.allocateDirect(count * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static FloatBuffer floats(int count) {
+        return ByteBuffer.allocateDirect(count * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
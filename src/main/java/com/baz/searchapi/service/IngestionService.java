@@ -0,0 +1,262 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.dto.DocumentRequest;
+import com.baz.searchapi.model.dto.IngestionJobResponse;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.model.entity.IngestionJob;
+import com.baz.searchapi.model.entity.IngestionJob.Status;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.DocumentRepository;
+import com.baz.searchapi.repository.IngestionJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous document ingestion.
+ *
+ * <p>{@link #submit} persists the document row and a PENDING job in one short transaction and
+ * hands the job to the ingestion worker pool. A worker then chunks and embeds the content with
+ * no connection held, and inserts the chunks and marks the job COMPLETED in a second short
+ * transaction. Connection usage therefore stays flat however long inference takes.
+ *
+ * <p>At most {@code ingestion.max-pending} jobs may be queued or running at once; further
+ * submissions are refused with 503 before anything is written.
+ *
+ * <p>Several instances may share the table, so a worker first claims its job with a conditional
+ * update and skips it if another worker got there first. The claim time is the job's lease:
+ * the chunks are inserted in the same transaction that marks the job COMPLETED, and only while
+ * that lease is still the job's {@code updated_at}. A RUNNING job whose lease is older than
+ * {@code ingestion.lease} belonged to a worker that died, and may be claimed again. On startup
+ * the PENDING and stale RUNNING jobs are fed to the pool as slots in the queue free up, and
+ * every lease interval after that a sweep queues the jobs whose lease has run out since.
+ */
+@Service
+public class IngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionService.class);
+
+    private final DocumentService documentService;
+    private final DocumentRepository documentRepository;
+    private final ChunkRepository chunkRepository;
+    private final IngestionJobRepository ingestionJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor executor;
+    private final TaskScheduler scheduler;
+    private final int maxPending;
+    private final Duration lease;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Queue<UUID> backlog = new ConcurrentLinkedQueue<>();
+
+    public IngestionService(DocumentService documentService,
+                            DocumentRepository documentRepository,
+                            ChunkRepository chunkRepository,
+                            IngestionJobRepository ingestionJobRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("ingestionExecutor") TaskExecutor executor,
+                            @Qualifier("ingestionScheduler") TaskScheduler scheduler,
+                            MeterRegistry meterRegistry,
+                            @Value("${ingestion.max-pending:100}") int maxPending,
+                            @Value("${ingestion.lease:10m}") Duration lease) {
+        this.documentService = documentService;
+        this.documentRepository = documentRepository;
+        this.chunkRepository = chunkRepository;
+        this.ingestionJobRepository = ingestionJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.maxPending = maxPending;
+        this.lease = lease;
+        Gauge.builder("ingestion.jobs.pending", pending, AtomicInteger::get)
+                .description("Ingestion jobs queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Store the document and queue it for chunking and embedding.
+     */
+    public IngestionJobResponse submit(UUID clientId, DocumentRequest request) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Ingestion queue is full, retry later");
+        }
+
+        IngestionJob job;
+        try {
+            job = transactionTemplate.execute(status -> {
+                Document document = documentService.saveDocument(clientId, request);
+                return ingestionJobRepository.save(new IngestionJob(document.getId()));
+            });
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+
+        dispatch(job.getId());
+        return toResponse(job);
+    }
+
+    public IngestionJobResponse getJob(UUID jobId) {
+        return ingestionJobRepository.findById(jobId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Ingestion job not found"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        // Jobs a previous run left RUNNING keep their lease for now; the sweep takes them once it lapses
+        scheduler.scheduleWithFixedDelay(this::sweepStaleJobs, Instant.now().plus(lease), lease);
+
+        List<UUID> unfinished = ingestionJobRepository.findResumableIds(now().minus(lease));
+        if (unfinished.isEmpty()) return;
+
+        log.info("Resuming {} unfinished ingestion jobs", unfinished.size());
+        backlog.addAll(unfinished);
+        drainBacklog();
+    }
+
+    /** Queue jobs whose lease has lapsed since startup, skipping those already waiting here. */
+    void sweepStaleJobs() {
+        try {
+            List<UUID> stale = ingestionJobRepository.findStaleIds(now().minus(lease)).stream()
+                    .filter(jobId -> !backlog.contains(jobId))
+                    .toList();
+            if (stale.isEmpty()) return;
+
+            log.info("Re-queueing {} ingestion jobs with an expired lease", stale.size());
+            backlog.addAll(stale);
+            drainBacklog();
+        } catch (RuntimeException e) {
+            log.error("Ingestion job sweep failed", e);
+        }
+    }
+
+    /** Dispatch resumed jobs while the queue has room; each finished job makes room for the next. */
+    private void drainBacklog() {
+        while (!backlog.isEmpty()) {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                return;
+            }
+            UUID jobId = backlog.poll();
+            if (jobId == null) {
+                pending.decrementAndGet();
+                return;
+            }
+            dispatch(jobId);
+        }
+    }
+
+    /** Hand a job to the worker pool; the caller has already counted it in {@code pending}. */
+    private void dispatch(UUID jobId) {
+        try {
+            executor.execute(() -> process(jobId));
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            log.error("Could not queue ingestion job {}", jobId, e);
+            markFailed(jobId, "Could not queue job: " + e.getMessage());
+        }
+    }
+
+    void process(UUID jobId) {
+        LocalDateTime claimedAt = now();
+        try {
+            boolean claimed = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    ingestionJobRepository.claim(jobId, claimedAt, claimedAt.minus(lease)) == 1));
+            if (!claimed) {
+                log.info("Ingestion job {} is already taken or finished, skipping", jobId);
+                return;
+            }
+            Document document = transactionTemplate.execute(status -> {
+                IngestionJob job = ingestionJobRepository.findById(jobId).orElseThrow();
+                return documentRepository.findById(job.getDocumentId()).orElseThrow();
+            });
+
+            // Inference runs outside any transaction, so no connection is held meanwhile
+            List<Chunk> chunks = documentService.buildChunks(document);
+
+            // Completing first locks the job row, so a worker that lost the lease writes no chunks
+            boolean completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (ingestionJobRepository.complete(jobId, claimedAt, chunks.size(), now()) == 0) {
+                    return false;
+                }
+                chunkRepository.insertAll(chunks);
+                return true;
+            }));
+            if (!completed) {
+                log.warn("Ingestion job {} lost its lease, discarding {} chunks", jobId, chunks.size());
+                return;
+            }
+            log.info("Ingestion job {} created {} chunks for document '{}'", jobId, chunks.size(), document.getTitle());
+        } catch (RuntimeException e) {
+            log.error("Ingestion job {} failed", jobId, e);
+            markFailed(jobId, claimedAt, e.getMessage());
+        } finally {
+            pending.decrementAndGet();
+            drainBacklog();
+        }
+    }
+
+    private void markFailed(UUID jobId, LocalDateTime claimedAt, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    ingestionJobRepository.fail(jobId, claimedAt, error != null ? error : "Ingestion failed", now()));
+        } catch (RuntimeException e) {
+            log.error("Could not mark ingestion job {} as failed", jobId, e);
+        }
+    }
+
+    private void markFailed(UUID jobId, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    ingestionJobRepository.findById(jobId).ifPresent(job -> {
+                        job.setStatus(Status.FAILED);
+                        job.setError(error != null ? error : "Ingestion failed");
+                    }));
+        } catch (RuntimeException e) {
+            log.error("Could not mark ingestion job {} as failed", jobId, e);
+        }
+    }
+
+    /** Postgres keeps microseconds, so leases are compared at that precision. */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private IngestionJobResponse toResponse(IngestionJob job) {
+        return new IngestionJobResponse(
+                job.getId(),
+                job.getDocumentId(),
+                job.getStatus().name(),
+                job.getChunkCount(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,125 @@
+package com.baz.searchapi.service;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions;
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A fixed set of identical {@link OrtSession}s over one model, lent out one caller at a time.
+ * Each session comes with its own {@link InferenceBuffers}, reused across calls.
+ *
+ * <p>Each session runs its own intra-op thread pool. Unless configured explicitly, the cores are
+ * split evenly between sessions ({@code cores / poolSize}, at least 1). Without that split, N
+ * sessions would each size their pool to every core and oversubscribe the machine under
+ * concurrent load.
+ */
+class OrtSessionPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrtSessionPool.class);
+
+    /**
+     * Session tuning, mapped from the {@code embedding.session.*} properties.
+     * {@code intraOpThreads <= 0} means "split the cores evenly across the pool".
+     */
+    record Settings(int poolSize,
+                    int intraOpThreads,
+                    int interOpThreads,
+                    OptLevel optimizationLevel,
+                    ExecutionMode executionMode,
+                    boolean cpuMemoryArena,
+                    boolean memoryPattern) {
+
+        Settings {
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("embedding.session.pool-size must be at least 1, was " + poolSize);
+            }
+        }
+
+        int intraOpThreadsPerSession(int cores) {
+            return intraOpThreads > 0 ? intraOpThreads : Math.max(1, cores / poolSize);
+        }
+    }
+
+    @FunctionalInterface
+    interface SessionCall<T> {
+        T run(OrtSession session, InferenceBuffers buffers) throws OrtException;
+    }
+
+    private record Lease(OrtSession session, InferenceBuffers buffers) {}
+
+    private final List<OrtSession> sessions;
+    private final BlockingQueue<Lease> idle;
+
+    OrtSessionPool(OrtEnvironment env, String modelPath, Settings settings) throws OrtException {
+        int intraOpThreads = settings.intraOpThreadsPerSession(Runtime.getRuntime().availableProcessors());
+        this.sessions = new ArrayList<>(settings.poolSize());
+        this.idle = new ArrayBlockingQueue<>(settings.poolSize());
+
+        try (SessionOptions options = new SessionOptions()) {
+            options.setIntraOpNumThreads(intraOpThreads);
+            options.setInterOpNumThreads(settings.interOpThreads());
+            options.setOptimizationLevel(settings.optimizationLevel());
+            options.setExecutionMode(settings.executionMode());
+            options.setCPUArenaAllocator(settings.cpuMemoryArena());
+            options.setMemoryPatternOptimization(settings.memoryPattern());
+
+            for (int i = 0; i < settings.poolSize(); i++) {
+                OrtSession session = env.createSession(modelPath, options);
+                sessions.add(session);
+                idle.add(new Lease(session, new InferenceBuffers()));
+            }
+        } catch (OrtException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        log.info("ONNX session pool loaded: {} sessions x {} intra-op threads (inter-op={}, opt={}, mode={}, arena={})",
+                settings.poolSize(), intraOpThreads, settings.interOpThreads(), settings.optimizationLevel(),
+                settings.executionMode(), settings.cpuMemoryArena());
+    }
+
+    /**
+     * Run the call on an idle session, waiting for one if all are busy.
+     */
+    <T> T withSession(SessionCall<T> call) throws OrtException {
+        Lease lease;
+        try {
+            lease = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for an ONNX session", e);
+        }
+        try {
+            return call.run(lease.session(), lease.buffers());
+        } finally {
+            idle.add(lease);
+        }
+    }
+
+    /** Sessions not currently lent out. */
+    int idleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        for (OrtSession session : sessions) {
+            try {
+                session.close();
+            } catch (OrtException e) {
+                log.warn("Failed to close ONNX session", e);
+            }
+        }
+        sessions.clear();
+        idle.clear();
+    }
+}
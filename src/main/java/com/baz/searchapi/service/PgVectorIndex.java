@@ -0,0 +1,88 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.repository.ChunkRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code chunks} table's HNSW index in Postgres. It is always available and is the fallback
+ * while an in-process backend is still loading.
+ *
+ * <p>With {@code vector-index.pgvector.quantization=BINARY}, queries run in two stages: the
+ * binary-quantized index supplies {@code binary-oversampling} times the usual candidate chunks
+ * and those are rescored at full precision. This keeps large corpora searchable once the
+ * halfvec index no longer fits in memory.
+ *
+ * <p>The table is the index, so {@link #add} and {@link #remove} have nothing to do. Chunk rows
+ * are written by {@link ChunkRepository#insertAll} and deleted with their document by the
+ * foreign key cascade, and pgvector maintains the index inside the same transaction.
+ */
+@Service
+public class PgVectorIndex implements VectorIndex {
+
+    public enum Quantization { NONE, BINARY }
+
+    private final ChunkRepository chunkRepository;
+    private final Quantization quantization;
+    private final int binaryOversampling;
+
+    public PgVectorIndex(ChunkRepository chunkRepository,
+                         @Value("${vector-index.pgvector.quantization:NONE}") Quantization quantization,
+                         @Value("${vector-index.pgvector.binary-oversampling:4}") int binaryOversampling) {
+        if (binaryOversampling < 1) {
+            throw new IllegalArgumentException("binary-oversampling must be at least 1, was " + binaryOversampling);
+        }
+        this.chunkRepository = chunkRepository;
+        this.quantization = quantization;
+        this.binaryOversampling = binaryOversampling;
+    }
+
+    Quantization quantization() {
+        return quantization;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void add(List<Chunk> chunks) {
+    }
+
+    @Override
+    public void remove(Collection<UUID> documentIds) {
+    }
+
+    /** Searches at {@link SearchEffort#BALANCED}. */
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit) {
+        return findTopDocuments(queryEmbedding, limit, SearchEffort.BALANCED);
+    }
+
+    @Override
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit, SearchEffort effort) {
+        int efSearch = effort.efSearch(limit);
+        int chunkCandidates = effort.chunkCandidates(limit);
+        return switch (quantization) {
+            case NONE -> chunkRepository.findTopDocumentsByEmbedding(queryEmbedding, limit, efSearch, chunkCandidates);
+            case BINARY -> chunkRepository.findTopDocumentsByBinaryEmbedding(
+                    queryEmbedding, limit, efSearch, chunkCandidates, binaryOversampling);
+        };
+    }
+
+    /**
+     * Top documents among one client's chunks. A client's chunks are few enough for the halfvec
+     * index, or an exact scan of them, whatever the quantization setting.
+     */
+    public List<Object[]> findTopDocumentsForClient(UUID clientId, float[] queryEmbedding, int limit,
+                                                    SearchEffort effort) {
+        return chunkRepository.findTopDocumentsByEmbeddingForClient(clientId, queryEmbedding, limit,
+                effort.efSearch(limit), effort.chunkCandidates(limit));
+    }
+}
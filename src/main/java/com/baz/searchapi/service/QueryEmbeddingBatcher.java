@@ -0,0 +1,160 @@
+package com.baz.searchapi.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent search-query embeddings into batched inference calls.
+ *
+ * <p>Callers enqueue their query and wait on a future. A single dispatcher thread takes the
+ * first pending query, then keeps collecting until the batching window closes or the batch
+ * is full, and runs the whole batch through {@link EmbeddingService#embedBatch}. While one
+ * batch is in inference, new queries accumulate in the queue and form the next batch, so
+ * under load the batch size grows with the arrival rate instead of each request paying for
+ * its own batch-of-one session call.
+ */
+@Service
+public class QueryEmbeddingBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryEmbeddingBatcher.class);
+
+    private final EmbeddingService embeddingService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingQuery> queue = new LinkedBlockingQueue<>();
+
+    private final DistributionSummary batchSizes;
+    private final Timer queueWait;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public QueryEmbeddingBatcher(EmbeddingService embeddingService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${embedding.query-batch.window-ms:2}") long windowMs,
+                                 @Value("${embedding.query-batch.max-size:32}") int maxBatchSize) {
+        this.embeddingService = embeddingService;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("embedding.query.batch.size")
+                .description("Number of search queries embedded per inference call")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("embedding.query.queue.wait")
+                .description("Time a search query waits in the batching queue before inference starts")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform()
+                .name("query-embedding-batcher")
+                .daemon()
+                .start(this::dispatchLoop);
+        log.info("Query embedding batcher started (window={}µs, maxBatchSize={})",
+                TimeUnit.NANOSECONDS.toMicros(windowNanos), maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<PendingQuery> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(p -> p.future().completeExceptionally(
+                new IllegalStateException("Query embedding batcher is shut down")));
+    }
+
+    /**
+     * Queue a query for embedding. The future completes once the batch it lands in has run.
+     */
+    public CompletableFuture<float[]> submit(String text) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Query embedding batcher is not running"));
+        }
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        PendingQuery pending = new PendingQuery(text, System.nanoTime(), future);
+        queue.add(pending);
+        // stop() may have drained the queue between the check above and the add; whichever of
+        // the two takes the query back out fails it
+        if (!running && queue.remove(pending)) {
+            future.completeExceptionally(new IllegalStateException("Query embedding batcher is shut down"));
+        }
+        return future;
+    }
+
+    /**
+     * Blocking convenience wrapper around {@link #submit(String)}.
+     */
+    public float[] embed(String text) {
+        try {
+            return submit(text).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void dispatchLoop() {
+        List<PendingQuery> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingQuery next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(p -> p.future().completeExceptionally(
+                        new IllegalStateException("Query embedding batcher is shut down")));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<PendingQuery> batch) {
+        long dispatchedAt = System.nanoTime();
+        batchSizes.record(batch.size());
+        for (PendingQuery pending : batch) {
+            queueWait.record(dispatchedAt - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            List<float[]> embeddings = embeddingService.embedBatch(batch.stream().map(PendingQuery::text).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(embeddings.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Batched query embedding failed for {} queries", batch.size(), e);
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    private record PendingQuery(String text, long enqueuedAt, CompletableFuture<float[]> future) {}
+}
@@ -0,0 +1,59 @@
+package com.baz.searchapi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded LRU/TTL cache of search-query embeddings, in front of {@link QueryEmbeddingBatcher}.
+ *
+ * <p>Keys are normalised query text: whitespace is collapsed and the text is lower-cased.
+ * all-MiniLM-L6-v2 uses an uncased, whitespace-splitting tokenizer, so this normalisation
+ * never changes the embedding. Concurrent misses on the same key share one in-flight
+ * inference, and failed inferences are not cached.
+ *
+ * <p>Hit, miss and eviction counts are published under the cache name {@code query-embeddings}.
+ * Returned arrays are shared between callers and must not be modified.
+ */
+@Service
+public class QueryEmbeddingCache {
+
+    private final QueryEmbeddingBatcher queryEmbeddingBatcher;
+    private final AsyncCache<String, float[]> cache;
+
+    public QueryEmbeddingCache(QueryEmbeddingBatcher queryEmbeddingBatcher,
+                               MeterRegistry meterRegistry,
+                               @Value("${embedding.query-cache.max-size:10000}") long maxSize,
+                               @Value("${embedding.query-cache.ttl:1h}") Duration ttl) {
+        this.queryEmbeddingBatcher = queryEmbeddingBatcher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "query-embeddings");
+    }
+
+    /**
+     * Return the embedding for the query, running inference only on a cache miss.
+     */
+    public float[] embed(String query) {
+        try {
+            return cache.get(normalise(query), (key, executor) -> queryEmbeddingBatcher.submit(key)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    static String normalise(String query) {
+        return query.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
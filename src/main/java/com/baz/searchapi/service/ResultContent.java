@@ -0,0 +1,25 @@
+package com.baz.searchapi.service;
+
+import java.util.Locale;
+
+/**
+ * What a document search result carries: the document's full content, or only the chunk that
+ * best matches the query. Snippets keep responses small and never read document bodies; the
+ * full body is fetched separately from {@code GET /documents/{id}}.
+ */
+public enum ResultContent {
+    FULL, SNIPPET;
+
+    /**
+     * Resolves the {@code content} request parameter.
+     *
+     * @throws IllegalArgumentException for anything other than full or snippet
+     */
+    public static ResultContent of(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "full" -> FULL;
+            case "snippet" -> SNIPPET;
+            default -> throw new IllegalArgumentException("content must be one of full, snippet");
+        };
+    }
+}
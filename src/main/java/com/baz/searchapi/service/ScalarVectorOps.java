@@ -0,0 +1,35 @@
+package com.baz.searchapi.service;
+
+/**
+ * Plain loops. The fallback when the Vector API is disabled or unavailable.
+ */
+final class ScalarVectorOps implements VectorOps {
+
+    @Override
+    public boolean isSimd() {
+        return false;
+    }
+
+    @Override
+    public void add(float[] acc, float[] v) {
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] += v[i];
+        }
+    }
+
+    @Override
+    public void divide(float[] v, float divisor) {
+        for (int i = 0; i < v.length; i++) {
+            v[i] /= divisor;
+        }
+    }
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
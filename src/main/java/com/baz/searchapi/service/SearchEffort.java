@@ -0,0 +1,76 @@
+package com.baz.searchapi.service;
+
+import java.util.Locale;
+
+/**
+ * How hard the semantic leg searches: the HNSW candidate list size ({@code ef_search}) and the
+ * number of nearest chunks considered before grouping by document. More of either raises recall
+ * and latency together, so interactive type-ahead and batch reports want different values.
+ *
+ * <p>An adaptive effort starts with its own values and, while fewer than {@code limit}
+ * distinct documents come back, repeats the search with each value four times larger, up to
+ * {@link #MAX_EF_SEARCH} and {@link #MAX_CANDIDATES}.
+ */
+public record SearchEffort(int efSearch, int candidates, boolean adaptive) {
+
+    /** pgvector's upper bound for hnsw.ef_search. */
+    public static final int MAX_EF_SEARCH = 1000;
+    /** Upper bound for candidates: the in-process indexes allocate a result heap of this size per query. */
+    public static final int MAX_CANDIDATES = 10_000;
+    /** Documents usually have several chunks among the nearest ones. */
+    private static final int CHUNKS_PER_DOCUMENT = 4;
+    private static final int DEEPENING_FACTOR = 4;
+
+    public static final SearchEffort FAST     = new SearchEffort(40, 40, false);
+    public static final SearchEffort BALANCED = new SearchEffort(200, 200, false);
+    public static final SearchEffort THOROUGH = new SearchEffort(MAX_EF_SEARCH, 1000, false);
+    public static final SearchEffort ADAPTIVE = new SearchEffort(40, 40, true);
+
+    public SearchEffort {
+        if (efSearch < 1 || efSearch > MAX_EF_SEARCH) {
+            throw new IllegalArgumentException("ef_search must be between 1 and " + MAX_EF_SEARCH);
+        }
+        if (candidates < 1 || candidates > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("candidates must be between 1 and " + MAX_CANDIDATES);
+        }
+    }
+
+    /**
+     * Resolves the {@code effort}, {@code ef_search} and {@code candidates} request parameters.
+     * The level names a preset, and explicit values override the preset's.
+     *
+     * @throws IllegalArgumentException for an unknown level or out-of-range value
+     */
+    public static SearchEffort of(String level, Integer efSearch, Integer candidates) {
+        SearchEffort preset = switch (level.toLowerCase(Locale.ROOT)) {
+            case "fast" -> FAST;
+            case "balanced" -> BALANCED;
+            case "thorough" -> THOROUGH;
+            case "adaptive" -> ADAPTIVE;
+            default -> throw new IllegalArgumentException(
+                    "effort must be one of fast, balanced, thorough, adaptive");
+        };
+        return new SearchEffort(efSearch != null ? efSearch : preset.efSearch,
+                candidates != null ? candidates : preset.candidates, preset.adaptive);
+    }
+
+    /** Nearest chunks to consider for a top-{@code limit} document query. */
+    public int chunkCandidates(int limit) {
+        return (int) Math.max(candidates, Math.min(Integer.MAX_VALUE, (long) limit * CHUNKS_PER_DOCUMENT));
+    }
+
+    /**
+     * ef_search for a top-{@code limit} document query. An HNSW scan returns at most ef_search
+     * rows, so it is raised towards the candidate count where the cap allows.
+     */
+    public int efSearch(int limit) {
+        return Math.min(MAX_EF_SEARCH, Math.max(efSearch, chunkCandidates(limit)));
+    }
+
+    /** The next, deeper round of an adaptive search, or null once ef_search is at its cap. */
+    SearchEffort deeper() {
+        if (!adaptive || efSearch >= MAX_EF_SEARCH) return null;
+        return new SearchEffort(Math.min(MAX_EF_SEARCH, efSearch * DEEPENING_FACTOR),
+                Math.min(MAX_CANDIDATES, candidates * DEEPENING_FACTOR), true);
+    }
+}
@@ -0,0 +1,76 @@
+package com.baz.searchapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent legs of a search concurrently, each with its own timeout.
+ *
+ * <p>A leg that fails or overruns {@code search.leg-timeout} resolves to its fallback value
+ * instead of failing the request, so callers always get the partial result of the legs that
+ * did finish. A timed-out leg is not interrupted; it runs to completion in the background and
+ * its result is discarded.
+ *
+ * <p>A leg that forks legs of its own (document search) is started with {@link #forkOuter} and
+ * gets the longer {@code search.outer-leg-timeout}. When one of its inner legs times out, it
+ * still has time to rank and return what the others found instead of timing out with them.
+ */
+@Component
+public class SearchFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchFanOut.class);
+
+    private final ExecutorService executor;
+    private final Duration legTimeout;
+    private final Duration outerLegTimeout;
+
+    public SearchFanOut(@Qualifier("searchExecutor") ExecutorService executor,
+                        @Value("${search.leg-timeout:2s}") Duration legTimeout,
+                        @Value("${search.outer-leg-timeout:4s}") Duration outerLegTimeout) {
+        if (outerLegTimeout.compareTo(legTimeout) <= 0) {
+            throw new IllegalArgumentException("search.outer-leg-timeout (" + outerLegTimeout
+                    + ") must be longer than search.leg-timeout (" + legTimeout + ")");
+        }
+        this.executor = executor;
+        this.legTimeout = legTimeout;
+        this.outerLegTimeout = outerLegTimeout;
+    }
+
+    /**
+     * Start a leg. Join the returned future to wait for it; it never completes exceptionally.
+     */
+    public <T> CompletableFuture<T> fork(String leg, Supplier<T> task, T fallback) {
+        return fork(leg, task, fallback, legTimeout);
+    }
+
+    /**
+     * Start a leg whose task forks legs of its own, with {@code search.outer-leg-timeout}.
+     */
+    public <T> CompletableFuture<T> forkOuter(String leg, Supplier<T> task, T fallback) {
+        return fork(leg, task, fallback, outerLegTimeout);
+    }
+
+    private <T> CompletableFuture<T> fork(String leg, Supplier<T> task, T fallback, Duration timeout) {
+        return CompletableFuture.supplyAsync(task, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Search leg '{}' timed out after {}; returning partial results", leg, timeout);
+                    } else {
+                        log.warn("Search leg '{}' failed; returning partial results", leg, cause);
+                    }
+                    return fallback;
+                });
+    }
+}
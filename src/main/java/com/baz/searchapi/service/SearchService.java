@@ -5,22 +5,58 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class SearchService {
 
     private final ClientService clientService;
     private final DocumentService documentService;
+    private final SearchFanOut searchFanOut;
 
-    public SearchService(ClientService clientService, DocumentService documentService) {
+    public SearchService(ClientService clientService, DocumentService documentService, SearchFanOut searchFanOut) {
         this.clientService = clientService;
         this.documentService = documentService;
+        this.searchFanOut = searchFanOut;
     }
 
-    public List<SearchResultItem> search(String query) {
+    /**
+     * Client and document search run concurrently; a leg that fails or times out contributes
+     * no results rather than failing the whole request. Document search runs its semantic and
+     * keyword legs inside its own, so it gets the outer leg timeout.
+     *
+     * <p>Results are clients (best first) followed by documents (best first), and this returns
+     * the {@code [offset, offset + limit)} page of that list. Neither leg can contribute more
+     * than {@code offset + limit} items to a page, so each is asked for only that many.
+     * {@code effort} applies to the semantic part of document search, and {@code content} picks
+     * full document bodies or snippets.
+     */
+    public List<SearchResultItem> search(String query, int limit, int offset, SearchEffort effort,
+                                         ResultContent content) {
+        int window = offset + limit;
+        CompletableFuture<List<SearchResultItem>> clients =
+                searchFanOut.fork("clients", () -> clientService.searchClients(query, window), List.of());
+        CompletableFuture<List<SearchResultItem>> documents =
+                searchFanOut.forkOuter("documents", () -> documentService.searchDocuments(query, window, effort, content), List.of());
+
         List<SearchResultItem> results = new ArrayList<>();
-        results.addAll(clientService.searchClients(query));
-        results.addAll(documentService.searchDocuments(query));
-        return results;
+        results.addAll(clients.join());
+        results.addAll(documents.join());
+        int from = Math.min(offset, results.size());
+        int to   = Math.min(window, results.size());
+        return List.copyOf(results.subList(from, to));
+    }
+
+    /**
+     * The {@code [offset, offset + limit)} page of one client's documents, best first. Throws
+     * 404 if the client does not exist.
+     */
+    public List<SearchResultItem> searchClient(UUID clientId, String query, int limit, int offset,
+                                               SearchEffort effort, ResultContent content) {
+        List<SearchResultItem> documents =
+                documentService.searchClientDocuments(clientId, query, offset + limit, effort, content);
+        int from = Math.min(offset, documents.size());
+        return List.copyOf(documents.subList(from, documents.size()));
     }
 }
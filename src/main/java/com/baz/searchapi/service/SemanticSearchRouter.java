@@ -0,0 +1,126 @@
+package com.baz.searchapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Picks the {@link VectorIndex} the semantic leg of a search runs on.
+ *
+ * <p>If the flat store is loaded and the scope holds at most
+ * {@code vector-index.flat.max-chunks} chunks, the exact scan answers with perfect recall.
+ * Otherwise the query goes to the backend selected by {@code vector-index.backend} once it is
+ * loaded, and to pgvector until then. Client-scoped queries always go to pgvector, the only
+ * index that knows which client a chunk belongs to.
+ */
+@Service
+public class SemanticSearchRouter {
+
+    public enum Route { FLAT, HNSW, BRUTE_FORCE, PGVECTOR }
+
+    private final PgVectorIndex pgVectorIndex;
+    private final HnswChunkIndex hnswChunkIndex;
+    private final BruteForceVectorIndex bruteForceIndex;
+    private final FlatVectorStore flatVectorStore;
+    private final int flatMaxChunks;
+
+    public SemanticSearchRouter(PgVectorIndex pgVectorIndex,
+                                HnswChunkIndex hnswChunkIndex,
+                                BruteForceVectorIndex bruteForceIndex,
+                                FlatVectorStore flatVectorStore,
+                                @Value("${vector-index.flat.max-chunks:50000}") int flatMaxChunks) {
+        this.pgVectorIndex = pgVectorIndex;
+        this.hnswChunkIndex = hnswChunkIndex;
+        this.bruteForceIndex = bruteForceIndex;
+        this.flatVectorStore = flatVectorStore;
+        this.flatMaxChunks = flatMaxChunks;
+    }
+
+    Route route() {
+        if (flatVectorStore.isEnabled() && flatVectorStore.size() <= flatMaxChunks) return Route.FLAT;
+        if (hnswChunkIndex.isEnabled()) return Route.HNSW;
+        if (bruteForceIndex.isEnabled()) return Route.BRUTE_FORCE;
+        return Route.PGVECTOR;
+    }
+
+    /** The index the next query should run on. */
+    public VectorIndex index() {
+        return index(route());
+    }
+
+    private VectorIndex index(Route route) {
+        return switch (route) {
+            case FLAT -> flatVectorStore;
+            case HNSW -> hnswChunkIndex;
+            case BRUTE_FORCE -> bruteForceIndex;
+            case PGVECTOR -> pgVectorIndex;
+        };
+    }
+
+    /**
+     * Top documents by best chunk cosine similarity as [document_id, score] rows, best first.
+     */
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit) {
+        return index().findTopDocuments(queryEmbedding, limit);
+    }
+
+    /**
+     * {@link #findTopDocuments(float[], int)} at the given effort. An adaptive effort on an
+     * approximate index deepens round by round while fewer than {@code limit} documents come
+     * back; exact indexes already return every document they have.
+     */
+    public List<Object[]> findTopDocuments(float[] queryEmbedding, int limit, SearchEffort effort) {
+        Route route = route();
+        VectorIndex index = index(route);
+        boolean approximate = route == Route.HNSW || route == Route.PGVECTOR;
+        return deepening(effort, limit, approximate, e -> index.findTopDocuments(queryEmbedding, limit, e));
+    }
+
+    /** Top documents among one client's chunks, same rows as {@link #findTopDocuments(float[], int)}. */
+    public List<Object[]> findTopDocumentsForClient(UUID clientId, float[] queryEmbedding, int limit,
+                                                    SearchEffort effort) {
+        return deepening(effort, limit, true,
+                e -> pgVectorIndex.findTopDocumentsForClient(clientId, queryEmbedding, limit, e));
+    }
+
+    /**
+     * True when a query in this scope would run on pgvector's halfvec index, so the semantic leg
+     * can be joined with the keyword leg in one SQL statement. Client-scoped queries always do.
+     */
+    boolean runsOnHalfvecIndex(UUID clientId) {
+        return clientId != null
+                || (route() == Route.PGVECTOR && pgVectorIndex.quantization() == PgVectorIndex.Quantization.NONE);
+    }
+
+    /** One row list per query, in input order, all answered by the same index. */
+    public List<List<Object[]>> findTopDocuments(List<float[]> queryEmbeddings, int limit) {
+        return index().findTopDocuments(queryEmbeddings, limit);
+    }
+
+    /**
+     * Runs {@code search} at {@code effort} and, for an adaptive effort on an approximate index,
+     * again at each deeper effort while fewer than {@code limit} rows come back.
+     */
+    static <T> List<T> deepening(SearchEffort effort, int limit, boolean approximate,
+                                 Function<SearchEffort, List<T>> search) {
+        return deepening(effort, approximate, search, rows -> rows.size() < limit);
+    }
+
+    /**
+     * Runs {@code search} at {@code effort} and, for an adaptive effort on an approximate index,
+     * again at each deeper effort while {@code tooShallow} holds for the result.
+     */
+    static <R> R deepening(SearchEffort effort, boolean approximate, Function<SearchEffort, R> search,
+                           Predicate<R> tooShallow) {
+        R result = search.apply(effort);
+        if (!approximate) return result;
+        for (SearchEffort next = effort.deeper(); next != null && tooShallow.test(result); next = next.deeper()) {
+            result = search.apply(next);
+        }
+        return result;
+    }
+}
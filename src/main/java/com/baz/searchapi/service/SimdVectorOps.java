@@ -0,0 +1,61 @@
+package com.baz.searchapi.service;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels at the platform's preferred width (e.g. 16 floats with AVX-512, 8 with
+ * AVX2). A 384-float embedding is an exact multiple of every common width, so the scalar tail
+ * loops only run for unusual lengths.
+ *
+ * <p>Only load this class through {@link VectorOps#select}: without
+ * {@code --add-modules jdk.incubator.vector} it fails to link.
+ */
+final class SimdVectorOps implements VectorOps {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean isSimd() {
+        return true;
+    }
+
+    @Override
+    public void add(float[] acc, float[] v) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(acc.length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, acc, i)
+                    .add(FloatVector.fromArray(SPECIES, v, i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) {
+            acc[i] += v[i];
+        }
+    }
+
+    @Override
+    public void divide(float[] v, float divisor) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(v.length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, v, i).div(divisor).intoArray(v, i);
+        }
+        for (; i < v.length; i++) {
+            v[i] /= divisor;
+        }
+    }
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        FloatVector sums = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+            sums = FloatVector.fromArray(SPECIES, a, i).fma(FloatVector.fromArray(SPECIES, b, i), sums);
+        }
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
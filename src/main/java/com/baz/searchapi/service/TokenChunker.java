@@ -0,0 +1,100 @@
+package com.baz.searchapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits document content into windows sized in model tokens rather than words.
+ *
+ * <p>Word windows say nothing about how many tokens the model will see: a 150-word window of
+ * account numbers or ISINs can exceed the tokenizer's max length and be silently truncated.
+ * This chunker tokenizes the whole document once, cuts {@code chunking.token.window} tokens
+ * per chunk (including [CLS] and [SEP]) with {@code chunking.token.overlap} tokens shared
+ * between neighbours, and hands each chunk's token ids straight to
+ * {@link EmbeddingService#embedTokenIds} so nothing is tokenized twice.
+ *
+ * <p>Only used when {@code chunking.strategy=TOKEN}; the default remains the word chunker in
+ * {@link DocumentService#chunkText}.
+ */
+@Component
+public class TokenChunker {
+
+    public enum Strategy { WORD, TOKEN }
+
+    private final EmbeddingService embeddingService;
+    private final Strategy strategy;
+    private final int contentTokens;
+    private final int overlap;
+
+    public TokenChunker(EmbeddingService embeddingService,
+                        @Value("${chunking.strategy:WORD}") Strategy strategy,
+                        @Value("${chunking.token.window:256}") int window,
+                        @Value("${chunking.token.overlap:32}") int overlap) {
+        // Two positions per window are taken by [CLS] and [SEP]
+        if (window < 3 || window > EmbeddingService.MAX_SEQUENCE_LENGTH) {
+            throw new IllegalArgumentException("chunking.token.window must be between 3 and "
+                    + EmbeddingService.MAX_SEQUENCE_LENGTH + ", was " + window);
+        }
+        if (overlap < 0 || overlap >= window - 2) {
+            throw new IllegalArgumentException(
+                    "chunking.token.overlap must be between 0 and chunking.token.window - 3, was " + overlap);
+        }
+        this.embeddingService = embeddingService;
+        this.strategy = strategy;
+        this.contentTokens = window - 2;
+        this.overlap = overlap;
+    }
+
+    public boolean isEnabled() {
+        return strategy == Strategy.TOKEN;
+    }
+
+    /**
+     * Chunk text along token boundaries. Each chunk carries its source substring, for storage
+     * and keyword search, and its complete model input ids.
+     */
+    public List<TokenizedChunk> chunk(String text) {
+        EmbeddingService.TokenizedText tokens = embeddingService.tokenizeForChunking(text);
+        List<TokenizedChunk> chunks = new ArrayList<>();
+        for (int[] range : windows(tokens.ids().length, contentTokens, overlap)) {
+            int from = range[0];
+            int to = range[1];
+            int charStart = from == to ? 0 : tokens.charStarts()[from];
+            int charEnd = from == to ? 0 : tokens.charEnds()[to - 1];
+            String chunkText = text.substring(charStart, charEnd);
+            chunks.add(new TokenizedChunk(chunkText, embeddingService.withSpecialTokens(tokens.ids(), from, to),
+                    charStart, charEnd));
+        }
+        return chunks;
+    }
+
+    /**
+     * Token ranges [from, to) of at most {@code size} tokens, consecutive ranges sharing
+     * {@code overlap} tokens. The last range is shifted back to end on the final token so it is
+     * never a short tail. Zero tokens yields a single empty range.
+     */
+    static List<int[]> windows(int tokenCount, int size, int overlap) {
+        List<int[]> ranges = new ArrayList<>();
+        if (tokenCount <= size) {
+            ranges.add(new int[]{0, tokenCount});
+            return ranges;
+        }
+        int step = size - overlap;
+        int start = 0;
+        while (start + size < tokenCount) {
+            ranges.add(new int[]{start, start + size});
+            start += step;
+        }
+        ranges.add(new int[]{tokenCount - size, tokenCount});
+        return ranges;
+    }
+
+    /**
+     * A chunk's text, its model input ids ([CLS] and [SEP] included) and the character range
+     * [charStart, charEnd) of the source text it was cut from.
+     */
+    public record TokenizedChunk(String text, long[] inputIds, int charStart, int charEnd) {}
+}
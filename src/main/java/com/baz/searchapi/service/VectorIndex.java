@@ -0,0 +1,68 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A nearest-neighbour index over chunk embeddings that answers the semantic leg of a search.
+ *
+ * <p>Implementations are interchangeable: every one returns the same [document_id, score] rows,
+ * scoring a document by its best chunk's cosine similarity. {@code vector-index.backend} picks
+ * the one {@link SemanticSearchRouter} sends queries to, so backends can be swapped and
+ * compared without touching {@link DocumentService}.
+ */
+public interface VectorIndex {
+
+    /** Selectable backends for {@code vector-index.backend}. */
+    enum Backend { PGVECTOR, HNSW, BRUTE_FORCE }
+
+    /** True once the index is selected and loaded, so it can answer queries. */
+    boolean isEnabled();
+
+    /** Adds persisted chunks. Chunks the index already holds are ignored. */
+    void add(List<Chunk> chunks);
+
+    /** Drops every chunk of the given documents from query results. */
+    void remove(Collection<UUID> documentIds);
+
+    /**
+     * Top documents nearest to the query as at most {@code limit} [document_id, score] rows,
+     * best first, ties broken by document id.
+     */
+    List<Object[]> findTopDocuments(float[] queryEmbedding, int limit);
+
+    /**
+     * {@link #findTopDocuments(float[], int)} at the given effort. Exact indexes have no
+     * recall/latency trade-off to make and ignore it.
+     */
+    default List<Object[]> findTopDocuments(float[] queryEmbedding, int limit, SearchEffort effort) {
+        return findTopDocuments(queryEmbedding, limit);
+    }
+
+    /**
+     * {@link #findTopDocuments(float[], int)} for several queries, one row list per query in
+     * input order. Implementations that can share work across queries override this.
+     */
+    default List<List<Object[]>> findTopDocuments(List<float[]> queryEmbeddings, int limit) {
+        List<List<Object[]>> results = new ArrayList<>(queryEmbeddings.size());
+        for (float[] queryEmbedding : queryEmbeddings) {
+            results.add(findTopDocuments(queryEmbedding, limit));
+        }
+        return results;
+    }
+
+    /** The best {@code limit} documents of a best-score-per-document map, as result rows. */
+    static List<Object[]> topDocuments(Map<UUID, Double> best, int limit) {
+        List<Object[]> rows = new ArrayList<>(Math.min(limit, best.size()));
+        best.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .forEach(e -> rows.add(new Object[]{e.getKey(), e.getValue()}));
+        return rows;
+    }
+}
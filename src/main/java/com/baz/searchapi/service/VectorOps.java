@@ -0,0 +1,61 @@
+package com.baz.searchapi.service;
+
+/**
+ * Float kernels for embedding post-processing (mean pooling, L2 normalisation) and for scoring
+ * vectors inside the JVM.
+ *
+ * <p>{@link #select(boolean)} returns the SIMD implementation on top of the incubating Vector
+ * API when it is requested and the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and the plain scalar loops otherwise. Both give the
+ * same results up to float rounding: the SIMD dot product sums lanes in a different order.
+ */
+public interface VectorOps {
+
+    /** Whether these are the Vector API kernels. */
+    boolean isSimd();
+
+    /** {@code acc[i] += v[i]} for every i. */
+    void add(float[] acc, float[] v);
+
+    /** {@code v[i] /= divisor} for every i. */
+    void divide(float[] v, float divisor);
+
+    /** Inner product of two vectors of equal length. */
+    float dot(float[] a, float[] b);
+
+    /**
+     * A unit-length copy of {@code v}, or {@code v} itself if it is all zeros.
+     */
+    default float[] normalize(float[] v) {
+        float norm = (float) Math.sqrt(dot(v, v));
+        if (norm == 0) return v;
+        float[] result = v.clone();
+        divide(result, norm);
+        return result;
+    }
+
+    /**
+     * Cosine similarity; 0 if either vector is all zeros. For unit vectors this is just {@link #dot}.
+     */
+    default float cosine(float[] a, float[] b) {
+        float normA = dot(a, a);
+        float normB = dot(b, b);
+        if (normA == 0 || normB == 0) return 0f;
+        return (float) (dot(a, b) / Math.sqrt((double) normA * normB));
+    }
+
+    /**
+     * The SIMD kernels if {@code simdEnabled} and the Vector API module is present, else the
+     * scalar ones.
+     */
+    static VectorOps select(boolean simdEnabled) {
+        if (simdEnabled) {
+            try {
+                return new SimdVectorOps();
+            } catch (LinkageError e) {
+                // jdk.incubator.vector is not in the boot layer
+            }
+        }
+        return new ScalarVectorOps();
+    }
+}
@@ -0,0 +1,154 @@
+package com.baz.searchapi.service;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Word-window chunker: ~150-word chunks with a 25-word overlap, a final chunk under 50 words
+ * merged into the previous one.
+ *
+ * <p>Works in one pass over character offsets instead of splitting the document into word
+ * Strings. Only the boundaries of the words still needed (at most one window plus the merge
+ * lookahead) are buffered, and chunks are produced lazily, so memory stays flat however large
+ * the document is. Chunk text is the words of the window joined by single spaces, exactly as
+ * {@code String.join(" ", text.trim().split("\\s+"))} would produce.
+ */
+final class WordChunker implements Iterator<WordChunker.Span> {
+
+    static final int TARGET_WORDS = 150;
+    static final int OVERLAP_WORDS = 25;
+    static final int MIN_TAIL_WORDS = 50;
+
+    private static final int STEP = TARGET_WORDS - OVERLAP_WORDS;
+    // To decide whether a window absorbs the tail we must see one step plus a minimal tail ahead
+    private static final int LOOKAHEAD = STEP + MIN_TAIL_WORDS;
+
+    private final String text;
+    private final int limit;
+    private int pos;
+
+    // Ring buffer of word boundaries, starting at the first word of the next chunk
+    private final int[] wordStarts = new int[Math.max(TARGET_WORDS, LOOKAHEAD)];
+    private final int[] wordEnds = new int[wordStarts.length];
+    private int head;
+    private int buffered;
+
+    private boolean done;
+
+    private WordChunker(String text) {
+        this.text = text;
+        // Same bounds as String.trim(): strip leading and trailing chars <= ' '
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        this.pos = start;
+        this.limit = end;
+    }
+
+    /** Chunk boundaries as character offsets into {@code text}, produced lazily. */
+    static Iterator<Span> spans(String text) {
+        return new WordChunker(text);
+    }
+
+    /** Chunk texts, produced lazily. */
+    static Stream<String> chunks(String text) {
+        WordChunker chunker = new WordChunker(text);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(chunker, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(span -> span.text(text));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Span next() {
+        if (done) throw new NoSuchElementException();
+        fill(LOOKAHEAD);
+
+        if (buffered == 0) {
+            // Blank text still yields one (empty) chunk
+            done = true;
+            return new Span(pos, pos);
+        }
+        // Take everything left if it fits in this window, or if the window after this one would
+        // be the last and under MIN_TAIL_WORDS (it is absorbed here)
+        int count = buffered < LOOKAHEAD ? buffered : TARGET_WORDS;
+
+        Span span = new Span(wordStarts[head], wordEnds[(head + count - 1) % wordStarts.length]);
+        if (count == buffered) {
+            done = true;
+        } else {
+            head = (head + STEP) % wordStarts.length;
+            buffered -= STEP;
+        }
+        return span;
+    }
+
+    /** Scan forward until {@code wanted} words are buffered or the text is exhausted. */
+    private void fill(int wanted) {
+        while (buffered < wanted && pos < limit) {
+            int start = pos;
+            int end = start;
+            while (end < limit && !isSeparator(text.charAt(end))) end++;
+            int slot = (head + buffered) % wordStarts.length;
+            wordStarts[slot] = start;
+            wordEnds[slot] = end;
+            buffered++;
+            pos = end;
+            while (pos < limit && isSeparator(text.charAt(pos))) pos++;
+        }
+    }
+
+    /** Length in UTF-8 bytes of the characters [from, to) of {@code text}. */
+    static int utf8Length(String text, int from, int to) {
+        int bytes = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /** The characters matched by the regex {@code \s}. */
+    static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** A chunk as the character range [start, end) of the source text, first word to last word. */
+    record Span(int start, int end) {
+
+        /** The words in this range joined by single spaces. */
+        String text(String source) {
+            StringBuilder sb = new StringBuilder(end - start);
+            int i = start;
+            while (i < end) {
+                int wordEnd = i;
+                while (wordEnd < end && !isSeparator(source.charAt(wordEnd))) wordEnd++;
+                sb.append(source, i, wordEnd);
+                i = wordEnd;
+                if (i < end) {
+                    sb.append(' ');
+                    while (i < end && isSeparator(source.charAt(i))) i++;
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- V2__ingestion_jobs.sql
+-- Status tracking for asynchronous document ingestion (chunking + embedding off the request thread)
+
+CREATE TABLE ingestion_jobs (
+    id          UUID        PRIMARY KEY DEFAULT gen_random_uuid(),
+    document_id UUID        NOT NULL REFERENCES documents(id) ON DELETE CASCADE,
+    status      TEXT        NOT NULL,
+    chunk_count INT,
+    error       TEXT,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_ingestion_jobs_document ON ingestion_jobs (document_id);
@@ -0,0 +1,13 @@
+-- V3__client_trigram_search.sql
+-- Trigram index for client substring search. Without it, the ILIKE '%q%' predicates
+-- over clients can only be answered by a sequential scan.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- One GIN index over all searchable client text. The expression must match the one in
+-- ClientRepository.searchByTrigram exactly for the planner to use it. Plain || with
+-- coalesce is used rather than concat_ws because index expressions must be IMMUTABLE.
+-- gin_trgm_ops serves ILIKE directly, since trigrams are case-folded.
+CREATE INDEX idx_clients_search_trgm ON clients USING GIN (
+    (first_name || ' ' || last_name || ' ' || email || ' ' || coalesce(description, '')) gin_trgm_ops
+);
@@ -0,0 +1,15 @@
+-- V5__chunk_binary_quantized_index.sql
+-- Hamming-distance HNSW index over the sign bits of each chunk embedding, for two-stage
+-- semantic search (vector-index.pgvector.quantization=BINARY).
+--
+-- binary_quantize keeps one bit per dimension, 48 bytes per chunk instead of 768, so the
+-- graph fits in memory at corpus sizes where idx_chunks_embedding no longer does. Hamming
+-- distance over sign bits only approximates the angle between vectors, so searches fetch an
+-- oversampled candidate set from this index and rescore it against the stored halfvec.
+--
+-- The expression must match ChunkSearchRepositoryImpl.TOP_DOCUMENTS_BY_BINARY_EMBEDDING
+-- exactly for the planner to use the index.
+
+CREATE INDEX idx_chunks_embedding_bq ON chunks
+    USING hnsw ((binary_quantize(embedding)::bit(384)) bit_hamming_ops)
+    WITH (m = 16, ef_construction = 64);
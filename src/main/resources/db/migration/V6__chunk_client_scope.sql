@@ -0,0 +1,23 @@
+-- V6__chunk_client_scope.sql
+-- Denormalise the owning client onto chunks so client-scoped semantic search can filter
+-- chunks without joining documents.
+--
+-- A client's chunks are usually a tiny fraction of the table. Filtering the global HNSW
+-- neighbourhood after the fact discards almost every candidate, so the filter has to reach
+-- the scan itself:
+--   * idx_chunks_client lets the planner read just the client's chunks and score them
+--     exactly, which wins whenever the client has few chunks.
+--   * For larger clients the planner keeps idx_chunks_embedding and applies the filter
+--     during the index scan. ChunkSearchRepositoryImpl turns on hnsw.iterative_scan for
+--     these queries, so the scan keeps going until enough of the client's chunks are found.
+
+ALTER TABLE chunks ADD COLUMN client_id UUID REFERENCES clients(id) ON DELETE CASCADE;
+
+UPDATE chunks c
+SET    client_id = d.client_id
+FROM   documents d
+WHERE  d.id = c.document_id;
+
+ALTER TABLE chunks ALTER COLUMN client_id SET NOT NULL;
+
+CREATE INDEX idx_chunks_client ON chunks (client_id);
@@ -0,0 +1,11 @@
+-- V7__chunk_byte_offsets.sql
+-- Record where each chunk sits in its document, as UTF-8 byte offsets [start_byte, end_byte)
+-- from its first word to the end of its last word.
+--
+-- Snippet search responses return the best-matching chunk instead of the whole document, and
+-- these offsets let a client locate that chunk in the full body fetched from
+-- GET /documents/{id}. Chunks written before this migration have no offsets until their
+-- document is re-ingested.
+
+ALTER TABLE chunks ADD COLUMN start_byte INT,
+                   ADD COLUMN end_byte   INT;
@@ -22,6 +22,7 @@ import java.util.UUID;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -121,4 +122,30 @@ class DocumentControllerTest {
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.error").value("A document with this title already exists for this client"));
     }
+
+    @Test
+    void getDocument_returnsFullContent() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        UUID docId = UUID.randomUUID();
+
+        when(documentService.getDocument(docId)).thenReturn(
+                new DocumentResponse(docId, clientId, "Utility Bill", "This is a utility bill.", LocalDateTime.now()));
+
+        mockMvc.perform(get("/documents/" + docId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(docId.toString()))
+                .andExpect(jsonPath("$.content").value("This is a utility bill."));
+    }
+
+    @Test
+    void getDocument_notFound_returns404() throws Exception {
+        UUID docId = UUID.randomUUID();
+
+        when(documentService.getDocument(docId))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
+
+        mockMvc.perform(get("/documents/" + docId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Document not found"));
+    }
 }
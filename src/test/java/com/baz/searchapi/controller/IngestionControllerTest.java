@@ -0,0 +1,155 @@
+package com.baz.searchapi.controller;
+
+import tools.jackson.databind.json.JsonMapper;
+import com.baz.searchapi.config.TestMockMvcConfig;
+import com.baz.searchapi.model.dto.BulkImportResponse;
+import com.baz.searchapi.model.dto.BulkImportResponse.ItemResult;
+import com.baz.searchapi.model.dto.DocumentRequest;
+import com.baz.searchapi.model.dto.IngestionJobResponse;
+import com.baz.searchapi.service.BulkImportService;
+import com.baz.searchapi.service.IngestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IngestionController.class)
+@Import(TestMockMvcConfig.class)
+class IngestionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JsonMapper objectMapper;
+
+    @MockitoBean
+    private IngestionService ingestionService;
+
+    @MockitoBean
+    private BulkImportService bulkImportService;
+
+    @Test
+    void createDocumentAsync_returns202WithJobLocation() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        UUID docId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        when(ingestionService.submit(eq(clientId), any())).thenReturn(
+                new IngestionJobResponse(jobId, docId, "PENDING", null, null, now, now));
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DocumentRequest("Utility Bill", "Content"))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/ingestion-jobs/" + jobId))
+                .andExpect(jsonPath("$.id").value(jobId.toString()))
+                .andExpect(jsonPath("$.document_id").value(docId.toString()))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.chunk_count").doesNotExist());
+    }
+
+    @Test
+    void createDocumentAsync_missingContent_returns400() throws Exception {
+        mockMvc.perform(post("/clients/" + UUID.randomUUID() + "/documents").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DocumentRequest("My Doc", null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.content").exists());
+    }
+
+    @Test
+    void createDocumentAsync_queueFull_returns503() throws Exception {
+        UUID clientId = UUID.randomUUID();
+
+        when(ingestionService.submit(eq(clientId), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Ingestion queue is full, retry later"));
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents").param("async", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DocumentRequest("Utility Bill", "Content"))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Ingestion queue is full, retry later"));
+    }
+
+    @Test
+    void getJob_completed_returnsChunkCount() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+
+        when(ingestionService.getJob(jobId)).thenReturn(
+                new IngestionJobResponse(jobId, UUID.randomUUID(), "COMPLETED", 4, null, now, now));
+
+        mockMvc.perform(get("/ingestion-jobs/" + jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.chunk_count").value(4));
+    }
+
+    @Test
+    void getJob_notFound_returns404() throws Exception {
+        UUID jobId = UUID.randomUUID();
+
+        when(ingestionService.getJob(jobId))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Ingestion job not found"));
+
+        mockMvc.perform(get("/ingestion-jobs/" + jobId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Ingestion job not found"));
+    }
+
+    @Test
+    void importDocuments_returnsPerItemResults() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        UUID docId = UUID.randomUUID();
+
+        when(bulkImportService.importDocuments(eq(clientId), any())).thenReturn(new BulkImportResponse(2, 1, 1, List.of(
+                ItemResult.created(0, docId, "Utility Bill"),
+                ItemResult.failed(1, null, "Malformed JSON"))));
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"title":"Utility Bill","content":"Content"}
+                                {not json
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].document_id").value(docId.toString()))
+                .andExpect(jsonPath("$.items[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.items[1].error").value("Malformed JSON"));
+    }
+
+    @Test
+    void importDocuments_clientNotFound_returns404() throws Exception {
+        UUID clientId = UUID.randomUUID();
+
+        when(bulkImportService.importDocuments(eq(clientId), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Client not found"));
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"A\",\"content\":\"B\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Client not found"));
+    }
+}
@@ -3,21 +3,29 @@ package com.baz.searchapi.controller;
 import com.baz.searchapi.config.TestMockMvcConfig;
 import com.baz.searchapi.model.dto.ClientResponse;
 import com.baz.searchapi.model.dto.DocumentResponse;
+import com.baz.searchapi.model.dto.DocumentSnippet;
 import com.baz.searchapi.model.dto.SearchResultItem;
+import com.baz.searchapi.service.ResultContent;
+import com.baz.searchapi.service.SearchEffort;
 import com.baz.searchapi.service.SearchService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -48,7 +56,7 @@ class SearchControllerTest {
 
     @Test
     void search_responseIsArray() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of());
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of());
 
         mockMvc.perform(get("/search").param("q", "anything"))
                 .andExpect(status().isOk())
@@ -57,7 +65,7 @@ class SearchControllerTest {
 
     @Test
     void search_noResults_returnsEmptyArray() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of());
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of());
 
         mockMvc.perform(get("/search").param("q", "xyznonexistent"))
                 .andExpect(status().isOk())
@@ -66,7 +74,7 @@ class SearchControllerTest {
 
     @Test
     void search_multipleResults_allReturned() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(clientResult(), docResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(clientResult(), docResult()));
 
         mockMvc.perform(get("/search").param("q", "finance"))
                 .andExpect(status().isOk())
@@ -77,7 +85,7 @@ class SearchControllerTest {
 
     @Test
     void search_clientResult_hasCorrectFields() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(clientResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(clientResult()));
 
         mockMvc.perform(get("/search").param("q", "john"))
                 .andExpect(status().isOk())
@@ -90,7 +98,7 @@ class SearchControllerTest {
 
     @Test
     void search_clientResult_hasNoDocumentFields() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(clientResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(clientResult()));
 
         mockMvc.perform(get("/search").param("q", "john"))
                 .andExpect(status().isOk())
@@ -103,7 +111,7 @@ class SearchControllerTest {
 
     @Test
     void search_documentResult_hasCorrectFields() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(docResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(docResult()));
 
         mockMvc.perform(get("/search").param("q", "utility bill"))
                 .andExpect(status().isOk())
@@ -116,7 +124,7 @@ class SearchControllerTest {
 
     @Test
     void search_documentResult_hasNoClientFields() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(docResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(docResult()));
 
         mockMvc.perform(get("/search").param("q", "utility bill"))
                 .andExpect(status().isOk())
@@ -127,7 +135,7 @@ class SearchControllerTest {
 
     @Test
     void search_documentResult_noRelevanceScoreInResponse() throws Exception {
-        when(searchService.search(anyString())).thenReturn(List.of(docResult()));
+        when(searchService.search(anyString(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(docResult()));
 
         mockMvc.perform(get("/search").param("q", "utility bill"))
                 .andExpect(status().isOk())
@@ -150,10 +158,131 @@ class SearchControllerTest {
 
     @Test
     void search_queryIsTrimmmedBeforePassingToService() throws Exception {
-        when(searchService.search("finance")).thenReturn(List.of());
+        when(searchService.search("finance", 20, 0, SearchEffort.BALANCED, ResultContent.FULL)).thenReturn(List.of());
 
         // Leading/trailing whitespace should be trimmed
         mockMvc.perform(get("/search").param("q", "  finance  "))
                 .andExpect(status().isOk());
     }
+
+    // --- Paging ---
+
+    @Test
+    void search_defaultPaging_isFirstTwentyResults() throws Exception {
+        when(searchService.search("tax", 20, 0, SearchEffort.BALANCED, ResultContent.FULL)).thenReturn(List.of(docResult()));
+
+        mockMvc.perform(get("/search").param("q", "tax"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void search_limitAndOffset_passedToService() throws Exception {
+        when(searchService.search("tax", 5, 10, SearchEffort.BALANCED, ResultContent.FULL)).thenReturn(List.of(docResult()));
+
+        mockMvc.perform(get("/search").param("q", "tax").param("limit", "5").param("offset", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void search_limitOutOfRange_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Query parameter 'limit' must be between 1 and 100"));
+        mockMvc.perform(get("/search").param("q", "tax").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_negativeOffset_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_pageBeyondMaxWindow_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax").param("limit", "100").param("offset", "901"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void search_effortAndOverrides_passedToService() throws Exception {
+        when(searchService.search("tax", 20, 0, new SearchEffort(64, 40, false), ResultContent.FULL))
+                .thenReturn(List.of(docResult()));
+
+        mockMvc.perform(get("/search").param("q", "tax").param("effort", "fast").param("ef_search", "64"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void search_unknownEffort_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax").param("effort", "maximum"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("effort must be one of fast, balanced, thorough, adaptive"));
+    }
+
+    @Test
+    void search_candidatesAboveMax_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax")
+                        .param("candidates", String.valueOf(SearchEffort.MAX_CANDIDATES + 1)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("candidates must be between 1 and " + SearchEffort.MAX_CANDIDATES));
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    void search_snippetContent_returnsSnippetWithoutContent() throws Exception {
+        var snippet = SearchResultItem.fromSnippet(UUID.randomUUID(), UUID.randomUUID(), "Utility Bill",
+                LocalDateTime.now(), new DocumentSnippet("bill for march", 0, 14, "<b>bill</b> for march"), 0.75);
+        when(searchService.search("bill", 20, 0, SearchEffort.BALANCED, ResultContent.SNIPPET))
+                .thenReturn(List.of(snippet));
+
+        mockMvc.perform(get("/search").param("q", "bill").param("content", "snippet"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].content").doesNotExist())
+                .andExpect(jsonPath("$[0].snippet.text").value("bill for march"))
+                .andExpect(jsonPath("$[0].snippet.start_byte").value(0))
+                .andExpect(jsonPath("$[0].snippet.end_byte").value(14))
+                .andExpect(jsonPath("$[0].snippet.highlight").value("<b>bill</b> for march"));
+    }
+
+    @Test
+    void search_unknownContent_returns400() throws Exception {
+        mockMvc.perform(get("/search").param("q", "tax").param("content", "summary"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("content must be one of full, snippet"));
+    }
+
+    // --- Client-scoped search ---
+
+    @Test
+    void searchClient_passesClientAndPagingToService() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        when(searchService.searchClient(clientId, "tax", 5, 10, SearchEffort.BALANCED, ResultContent.FULL))
+                .thenReturn(List.of(docResult()));
+
+        mockMvc.perform(get("/clients/" + clientId + "/search")
+                        .param("q", " tax ").param("limit", "5").param("offset", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].type").value("document"));
+    }
+
+    @Test
+    void searchClient_unknownClient_returns404() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        when(searchService.searchClient(clientId, "tax", 20, 0, SearchEffort.BALANCED, ResultContent.FULL))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Client not found"));
+
+        mockMvc.perform(get("/clients/" + clientId + "/search").param("q", "tax"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void searchClient_blankQuery_returns400() throws Exception {
+        mockMvc.perform(get("/clients/" + UUID.randomUUID() + "/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -14,7 +14,10 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -38,6 +41,8 @@ class ClientIntegrationTest {
     void cleanDatabase() {
         jdbcTemplate.execute("TRUNCATE TABLE clients CASCADE");
         when(embeddingService.embed(anyString())).thenReturn(new float[384]);
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
     }
 
     // --- Client creation ---
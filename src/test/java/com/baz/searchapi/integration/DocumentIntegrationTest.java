@@ -2,7 +2,7 @@ package com.baz.searchapi.integration;
 
 import com.baz.searchapi.config.TestMockMvcConfig;
 import com.baz.searchapi.config.TestcontainersConfig;
-
+import com.baz.searchapi.repository.IngestionJobRepository;
 import com.baz.searchapi.service.EmbeddingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,10 +15,16 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +41,12 @@ class DocumentIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private IngestionJobRepository ingestionJobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @MockitoBean
     private EmbeddingService embeddingService;
 
@@ -42,6 +54,8 @@ class DocumentIntegrationTest {
     void setUp() {
         jdbcTemplate.execute("TRUNCATE TABLE clients CASCADE");
         when(embeddingService.embed(anyString())).thenReturn(new float[384]);
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
     }
 
     // --- Document creation ---
@@ -203,6 +217,8 @@ class DocumentIntegrationTest {
         distinctiveEmbedding[383] = 0.9f;
 
         when(embeddingService.embed(anyString())).thenReturn(distinctiveEmbedding);
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> distinctiveEmbedding).toList());
 
         UUID clientId = createClient("embed@example.com");
         UUID docId = createDocumentAndGetId(clientId, "Embed Test", "Embedding round-trip test.");
@@ -216,12 +232,12 @@ class DocumentIntegrationTest {
         assertTrue(storedVec.startsWith("["), "pgvector format should start with '['");
         assertTrue(storedVec.endsWith("]"), "pgvector format should end with ']'");
 
-        // Parse back and verify key positions round-tripped correctly (within float precision)
+        // Parse back and verify key positions round-tripped correctly (within halfvec precision)
         String[] parts = storedVec.substring(1, storedVec.length() - 1).split(",");
         assertEquals(384, parts.length);
-        assertEquals(0.5f, Float.parseFloat(parts[0].trim()), 0.0001f);
-        assertEquals(-0.3f, Float.parseFloat(parts[100].trim()), 0.0001f);
-        assertEquals(0.9f, Float.parseFloat(parts[383].trim()), 0.0001f);
+        assertEquals(0.5f, Float.parseFloat(parts[0].trim()), 0.001f);
+        assertEquals(-0.3f, Float.parseFloat(parts[100].trim()), 0.001f);
+        assertEquals(0.9f, Float.parseFloat(parts[383].trim()), 0.001f);
     }
 
     @Test
@@ -243,8 +259,132 @@ class DocumentIntegrationTest {
                 .andExpect(status().isConflict());
     }
 
+    // --- Async ingestion ---
+
+    @Test
+    void createDocumentAsync_jobCompletesWithChunksStored() throws Exception {
+        UUID clientId = createClient("async@example.com");
+        String content = "word ".repeat(1000).trim();
+
+        MvcResult result = mockMvc.perform(post("/clients/" + clientId + "/documents?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title":"Async Doc","content":"%s"}
+                                """.formatted(content)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.document_id").exists())
+                .andReturn();
+
+        String location = result.getResponse().getHeader("Location");
+        String status = "PENDING";
+        for (int attempt = 0; attempt < 100 && !status.equals("COMPLETED") && !status.equals("FAILED"); attempt++) {
+            Thread.sleep(50);
+            String body = mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = body.replaceAll(".*\"status\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+        }
+        assertEquals("COMPLETED", status);
+
+        Integer chunkCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chunks c JOIN documents d ON d.id = c.document_id WHERE d.title = 'Async Doc'",
+                Integer.class);
+        assertEquals(8, chunkCount);
+    }
+
+    @Test
+    void createDocumentAsync_duplicateTitle_returns409() throws Exception {
+        UUID clientId = createClient("asyncdup@example.com");
+        createDocumentAndGetId(clientId, "Bank Statement", "Content");
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title":"Bank Statement","content":"Other content"}
+                                """))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void ingestionJobClaim_takesPendingAndStaleJobsOnlyOnce() throws Exception {
+        UUID clientId = createClient("claim@example.com");
+        UUID documentId = createDocumentAndGetId(clientId, "Claimed", "Content");
+        UUID pendingJob = insertJob(documentId, "PENDING", "now()");
+        UUID activeJob = insertJob(documentId, "RUNNING", "now()");
+        UUID staleJob = insertJob(documentId, "RUNNING", "now() - interval '1 hour'");
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime staleBefore = now.minusMinutes(10);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertEquals(List.of(pendingJob, staleJob), ingestionJobRepository.findResumableIds(staleBefore));
+        assertEquals(1, claim(pendingJob, now, staleBefore));
+        assertEquals(0, claim(pendingJob, now.plusSeconds(1), staleBefore));
+        assertEquals(0, claim(activeJob, now, staleBefore));
+        assertEquals(1, claim(staleJob, now, staleBefore));
+        assertEquals(List.of(), ingestionJobRepository.findResumableIds(staleBefore));
+
+        // Completion is fenced on the claim time, so a worker whose lease was taken over is refused
+        assertEquals(0, (int) tx.execute(status ->
+                ingestionJobRepository.complete(staleJob, now.minusHours(1), 3, now)));
+        assertEquals(1, (int) tx.execute(status ->
+                ingestionJobRepository.complete(staleJob, now, 3, now)));
+        assertEquals("COMPLETED", jdbcTemplate.queryForObject(
+                "SELECT status FROM ingestion_jobs WHERE id = ?", String.class, staleJob));
+    }
+
+    @Test
+    void getIngestionJob_unknownId_returns404() throws Exception {
+        mockMvc.perform(get("/ingestion-jobs/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Ingestion job not found"));
+    }
+
+    // --- Bulk import ---
+
+    @Test
+    void importDocuments_ndjson_createsDocumentsAndReportsFailures() throws Exception {
+        UUID clientId = createClient("bulk@example.com");
+        createDocumentAndGetId(clientId, "Existing Doc", "Content");
+        String longContent = "word ".repeat(1000).trim();
+
+        mockMvc.perform(post("/clients/" + clientId + "/documents/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"title":"Passport Copy","content":"Scanned passport for identity verification."}
+                                {"title":"existing doc","content":"Clashes with an existing title"}
+                                {"title":"Annual Report","content":"%s"}
+                                {"title":"","content":"Missing title"}
+                                """.formatted(longContent)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[1].error").value("A document with this title already exists for this client"))
+                .andExpect(jsonPath("$.items[2].status").value("CREATED"))
+                .andExpect(jsonPath("$.items[3].error").value("title is required"));
+
+        Integer chunkCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM chunks c JOIN documents d ON d.id = c.document_id WHERE d.title = 'Annual Report'",
+                Integer.class);
+        assertEquals(8, chunkCount);
+    }
+
     // --- Helpers ---
 
+    private UUID insertJob(UUID documentId, String status, String updatedAt) {
+        UUID jobId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO ingestion_jobs (id, document_id, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, clock_timestamp(), " + updatedAt + ")", jobId, documentId, status);
+        return jobId;
+    }
+
+    private int claim(UUID jobId, LocalDateTime claimedAt, LocalDateTime staleBefore) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> ingestionJobRepository.claim(jobId, claimedAt, staleBefore));
+    }
+
     private UUID createClient(String email) throws Exception {
         MvcResult result = mockMvc.perform(post("/clients")
                         .contentType(MediaType.APPLICATION_JSON)
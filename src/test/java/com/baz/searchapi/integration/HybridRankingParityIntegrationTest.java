@@ -0,0 +1,202 @@
+package com.baz.searchapi.integration;
+
+import com.baz.searchapi.config.TestcontainersConfig;
+import com.baz.searchapi.model.dto.SearchResultItem;
+import com.baz.searchapi.model.dto.SearchResultItem.DocumentResult;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Client;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ClientRepository;
+import com.baz.searchapi.repository.DocumentRepository;
+import com.baz.searchapi.service.DocumentService;
+import com.baz.searchapi.service.EmbeddingService;
+import com.baz.searchapi.service.QueryEmbeddingCache;
+import com.baz.searchapi.service.SearchEffort;
+import com.baz.searchapi.service.SearchFanOut;
+import com.baz.searchapi.service.SemanticSearchRouter;
+import com.baz.searchapi.service.TokenChunker;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The single-statement hybrid query ({@code search.ranking=SQL}) must rank exactly as the
+ * two-leg search ranked in Java does, on the same corpus in a real pgvector container.
+ *
+ * <p>Documents are drawn from 8 topics, with content made of random words from a small
+ * vocabulary so that keyword matches overlap, miss and tie in varied ways. Each query pairs
+ * words with an embedding near some document, so results mix semantic-only, keyword-only
+ * (floored at the threshold) and combined matches. Both services are built from the same
+ * beans and differ only in their ranking mode.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import(TestcontainersConfig.class)
+class HybridRankingParityIntegrationTest {
+
+    private static final int TOPICS = 8;
+    private static final int DOCS_PER_TOPIC = 6;
+    private static final int CHUNKS_PER_DOC = 3;
+    private static final int QUERIES = 30;
+    private static final double TOLERANCE = 1e-9;
+    private static final List<String> VOCABULARY = List.of(
+            "pension", "mortgage", "dividend", "passport", "invoice", "trust",
+            "equity", "bond", "salary", "insurance", "estate", "utility");
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private DocumentRepository documentRepository;
+    @Autowired private ClientRepository clientRepository;
+    @Autowired private ChunkRepository chunkRepository;
+    @Autowired private SearchFanOut searchFanOut;
+    @Autowired private TokenChunker tokenChunker;
+    @Autowired private SemanticSearchRouter semanticSearchRouter;
+    @MockitoBean private EmbeddingService embeddingService;
+
+    private final Random random = new Random(7);
+    private final List<float[]> docCentroids = new ArrayList<>();
+    private final QueryEmbeddingCache queryEmbeddingCache = mock(QueryEmbeddingCache.class);
+
+    @BeforeAll
+    void insertCorpus() {
+        jdbcTemplate.execute("TRUNCATE TABLE clients CASCADE");
+        UUID clientId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO clients (id, first_name, last_name, email) VALUES (?, 'Parity', 'Test', ?)",
+                clientId, "parity@example.com");
+        Client client = new Client();
+        client.setId(clientId);
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (int t = 0; t < TOPICS; t++) {
+            float[] topic = randomUnit();
+            for (int d = 0; d < DOCS_PER_TOPIC; d++) {
+                float[] docCentroid = around(topic, 0.8f);
+                UUID docId = UUID.randomUUID();
+                jdbcTemplate.update("INSERT INTO documents (id, client_id, title, content) VALUES (?, ?, ?, ?)",
+                        docId, clientId, "Doc " + t + "-" + d, randomWords(4 + random.nextInt(20)));
+                Document document = new Document();
+                document.setId(docId);
+                document.setClient(client);
+                for (int c = 0; c < CHUNKS_PER_DOC; c++) {
+                    chunks.add(new Chunk(UUID.randomUUID(), document, c, "chunk " + c, around(docCentroid, 0.5f)));
+                }
+                docCentroids.add(docCentroid);
+            }
+        }
+        chunkRepository.insertAll(chunks);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void sqlRanking_matchesJavaRanking_whenEveryMatchFits() {
+        assertParity(100);
+    }
+
+    @Test
+    void sqlRanking_matchesJavaRanking_atTopK() {
+        assertParity(5);
+    }
+
+    private void assertParity(int limit) {
+        DocumentService java = documentService(DocumentService.Ranking.JAVA);
+        DocumentService sql = documentService(DocumentService.Ranking.SQL);
+        int compared = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            String query = randomWords(1 + random.nextInt(2));
+            float[] embedding = around(docCentroids.get(random.nextInt(docCentroids.size())), 0.6f);
+            when(queryEmbeddingCache.embed(query)).thenReturn(embedding);
+
+            List<DocumentResult> expected = results(java.searchDocuments(query, limit, SearchEffort.BALANCED));
+            List<DocumentResult> actual = results(sql.searchDocuments(query, limit, SearchEffort.BALANCED));
+
+            assertEquals(expected.size(), actual.size(), "result count for '" + query + "'");
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).score(), actual.get(i).score(), TOLERANCE, "score " + i + " for '" + query + "'");
+            }
+            // Ties may be broken differently (Java and Postgres order UUIDs differently), so ids
+            // are compared per score, leaving out the tie group that the limit may cut through
+            double cutoff = expected.isEmpty() ? Double.MAX_VALUE : expected.getLast().score();
+            assertEquals(idsByScoreAbove(expected, cutoff, limit), idsByScoreAbove(actual, cutoff, limit),
+                    "documents for '" + query + "'");
+            assertFullContent(actual);
+            compared += expected.size();
+        }
+        assertTrue(compared > 0, "no query matched any document");
+    }
+
+    /** The SQL path projects the same columns that hydrating the entity provides. */
+    private void assertFullContent(List<DocumentResult> results) {
+        for (DocumentResult result : results) {
+            Document document = documentRepository.findById(result.id()).orElseThrow();
+            assertEquals(document.getTitle(), result.title());
+            assertEquals(document.getContent(), result.content());
+            assertEquals(document.getClient().getId(), result.clientId());
+        }
+    }
+
+    private static Map<Double, List<UUID>> idsByScoreAbove(List<DocumentResult> results, double cutoff, int limit) {
+        boolean cut = results.size() == limit;
+        return results.stream()
+                .filter(r -> !cut || r.score() > cutoff + TOLERANCE)
+                .collect(Collectors.groupingBy(r -> Math.round(r.score() * 1e6) / 1e6,
+                        HashMap::new,
+                        Collectors.collectingAndThen(Collectors.toList(),
+                                list -> list.stream().map(DocumentResult::id).sorted().toList())));
+    }
+
+    private static List<DocumentResult> results(List<SearchResultItem> items) {
+        return items.stream().map(DocumentResult.class::cast).toList();
+    }
+
+    private DocumentService documentService(DocumentService.Ranking ranking) {
+        return new DocumentService(documentRepository, clientRepository, embeddingService, chunkRepository,
+                queryEmbeddingCache, searchFanOut, tokenChunker, semanticSearchRouter, ranking);
+    }
+
+    private String randomWords(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(VOCABULARY.get(random.nextInt(VOCABULARY.size())));
+        }
+        return String.join(" ", words);
+    }
+
+    private float[] randomUnit() {
+        float[] v = new float[384];
+        for (int i = 0; i < v.length; i++) v[i] = (float) random.nextGaussian();
+        return normalize(v);
+    }
+
+    /** A unit vector near {@code centre}: centre plus a random unit vector scaled by spread. */
+    private float[] around(float[] centre, float spread) {
+        float[] noise = randomUnit();
+        float[] v = new float[centre.length];
+        for (int i = 0; i < v.length; i++) v[i] = centre[i] + spread * noise[i];
+        return normalize(v);
+    }
+
+    private static float[] normalize(float[] v) {
+        double sum = 0;
+        for (float x : v) sum += x * x;
+        float norm = (float) Math.sqrt(sum);
+        for (int i = 0; i < v.length; i++) v[i] /= norm;
+        return v;
+    }
+}
@@ -4,6 +4,7 @@ import com.baz.searchapi.config.TestMockMvcConfig;
 import com.baz.searchapi.config.TestcontainersConfig;
 
 import com.baz.searchapi.service.EmbeddingService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +19,14 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -53,13 +58,13 @@ class SearchIntegrationTest {
 
     // --- Category embeddings ---
 
-    /** Dims 0-95 = 1.0; all others = 0.0 */
+    /** Dims 0-95 = 1/√96; all others = 0.0 */
     private static final float[] ADDR_EMBED   = categoryEmbedding(0);
-    /** Dims 96-191 = 1.0; all others = 0.0 */
+    /** Dims 96-191 = 1/√96; all others = 0.0 */
     private static final float[] IDENT_EMBED  = categoryEmbedding(1);
-    /** Dims 192-287 = 1.0; all others = 0.0 */
+    /** Dims 192-287 = 1/√96; all others = 0.0 */
     private static final float[] PORT_EMBED   = categoryEmbedding(2);
-    /** Dims 288-383 = 1.0; all others = 0.0 */
+    /** Dims 288-383 = 1/√96; all others = 0.0 */
     private static final float[] TAX_EMBED    = categoryEmbedding(3);
     /** All zeros — cosine sim = 0 with everything (below the 0.4 threshold) */
     private static final float[] ZERO_EMBED   = new float[384];
@@ -115,7 +120,7 @@ class SearchIntegrationTest {
         stubEmbeddingMock();
     }
 
-    // --- Client search (tsvector full-text) ---
+    // --- Client search (pg_trgm substring) ---
 
     @Test
     void search_clientByFirstName_returnsClientResult() throws Exception {
@@ -138,6 +143,30 @@ class SearchIntegrationTest {
                 .andExpect(jsonPath("$[?(@.type == 'client' && @.first_name == 'Jane')]").exists());
     }
 
+    @Test
+    void search_clientByPartialEmailDomain_matches() throws Exception {
+        mockMvc.perform(get("/search").param("q", "search.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.type == 'client')]", hasSize(3)));
+    }
+
+    @Test
+    void search_clientResults_rankedBySimilarityScore() throws Exception {
+        mockMvc.perform(get("/search").param("q", "smith"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("client"))
+                .andExpect(jsonPath("$[0].first_name").value("Jane"))
+                .andExpect(jsonPath("$[0].score").value(1.0));
+    }
+
+    @Test
+    void search_clientQuerySpanningTwoFields_doesNotMatch() throws Exception {
+        // "Jane" and "Smith" are adjacent in the indexed text, but each field is matched on its own
+        mockMvc.perform(get("/search").param("q", "jane smith"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.type == 'client')]").isEmpty());
+    }
+
     @Test
     void search_clientByDescription_pensionMatchesPlanningDescription() throws Exception {
         mockMvc.perform(get("/search").param("q", "pension"))
@@ -205,6 +234,29 @@ class SearchIntegrationTest {
                 .andExpect(jsonPath("$[?(@.title == 'Tax Return 2023')]").exists());
     }
 
+    @Test
+    void search_semanticLegStalls_keywordMatchesStillReturned() throws Exception {
+        // The query's embedding never arrives within search.leg-timeout, so the semantic leg
+        // times out; document search must still return what the keyword leg found.
+        CountDownLatch release = new CountDownLatch(1);
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> {
+            List<String> texts = inv.getArgument(0);
+            if (texts.contains("obligations")) {
+                release.await(30, TimeUnit.SECONDS);
+            }
+            return texts.stream().map(SearchIntegrationTest::categoryEmbeddingFor).toList();
+        });
+
+        try {
+            mockMvc.perform(get("/search").param("q", "obligations"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.title == 'Tax Return 2023')]").exists());
+        } finally {
+            // Frees the batcher's dispatcher thread for the tests that follow
+            release.countDown();
+        }
+    }
+
     // --- Hybrid results (client + document in same response) ---
 
     @Test
@@ -306,6 +358,22 @@ class SearchIntegrationTest {
                 .andExpect(jsonPath("$[?(@.type == 'client')]").isEmpty());
     }
 
+    // --- Paging ---
+
+    @Test
+    void search_limitAndOffset_pageThroughClientsThenDocuments() throws Exception {
+        // "portfolio" matches Bob (client) and at least one document
+        mockMvc.perform(get("/search").param("q", "portfolio").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].type").value("client"));
+
+        mockMvc.perform(get("/search").param("q", "portfolio").param("limit", "1").param("offset", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].type").value("document"));
+    }
+
     // --- Response shape ---
 
     @Test
@@ -337,6 +405,34 @@ class SearchIntegrationTest {
                 .andExpect(jsonPath("$[?(@.type == 'document')].created_at").isNotEmpty());
     }
 
+    @Test
+    void search_snippetContent_returnsBestChunkInsteadOfContent() throws Exception {
+        // Utility Bill is a single chunk, so its snippet spans the whole content, all ASCII
+        String content = "This document shows the residential address and utility usage for the property.";
+        mockMvc.perform(get("/search").param("q", "address").param("content", "snippet"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.title == 'Utility Bill')].content").isEmpty())
+                .andExpect(jsonPath("$[?(@.title == 'Utility Bill')].snippet.text").value(hasItem(content)))
+                .andExpect(jsonPath("$[?(@.title == 'Utility Bill')].snippet.start_byte").value(hasItem(0)))
+                .andExpect(jsonPath("$[?(@.title == 'Utility Bill')].snippet.end_byte").value(hasItem(content.length())))
+                .andExpect(jsonPath("$[?(@.title == 'Utility Bill')].snippet.highlight")
+                        .value(hasItem(containsString("<b>address</b>"))));
+    }
+
+    @Test
+    void getDocument_returnsFullContentOfSearchResult() throws Exception {
+        MvcResult result = mockMvc.perform(get("/search").param("q", "passport").param("content", "snippet"))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<String> ids = JsonPath.read(result.getResponse().getContentAsString(),
+                "$[?(@.title == 'Passport Copy')].id");
+
+        mockMvc.perform(get("/documents/" + ids.getFirst()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Passport Copy"))
+                .andExpect(jsonPath("$.content").value(containsString("identity verification")));
+    }
+
     @Test
     void search_documentResult_hasNoClientFields() throws Exception {
         mockMvc.perform(get("/search").param("q", "address"))
@@ -400,10 +496,11 @@ class SearchIntegrationTest {
      * Cosine similarity between two different-category vectors = 0.0.
      */
     private static float[] categoryEmbedding(int category) {
+        // Unit length like real embeddings: the chunk index scores by inner product
         float[] v = new float[384];
         int blockStart = category * 96;
         for (int i = blockStart; i < blockStart + 96; i++) {
-            v[i] = 1.0f;
+            v[i] = (float) (1.0 / Math.sqrt(96));
         }
         return v;
     }
@@ -413,22 +510,26 @@ class SearchIntegrationTest {
      * keywords in the text being embedded. Unknown text returns ZERO_EMBED (no matches).
      */
     private void stubEmbeddingMock() {
-        when(embeddingService.embed(anyString())).thenAnswer(inv -> {
-            String text = ((String) inv.getArgument(0)).toLowerCase();
-            if (text.contains("address") || text.contains("utility") || text.contains("residential")) {
-                return ADDR_EMBED;
-            }
-            if (text.contains("identity") || text.contains("passport") || text.contains("verification")) {
-                return IDENT_EMBED;
-            }
-            if (text.contains("portfolio") || text.contains("investment") || text.contains("allocation")) {
-                return PORT_EMBED;
-            }
-            if (text.contains("tax") || text.contains("income") || text.contains("deductions")) {
-                return TAX_EMBED;
-            }
-            return ZERO_EMBED;
-        });
+        when(embeddingService.embed(anyString())).thenAnswer(inv -> categoryEmbeddingFor(inv.getArgument(0)));
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                inv.<List<String>>getArgument(0).stream().map(SearchIntegrationTest::categoryEmbeddingFor).toList());
+    }
+
+    private static float[] categoryEmbeddingFor(String input) {
+        String text = input.toLowerCase();
+        if (text.contains("address") || text.contains("utility") || text.contains("residential")) {
+            return ADDR_EMBED;
+        }
+        if (text.contains("identity") || text.contains("passport") || text.contains("verification")) {
+            return IDENT_EMBED;
+        }
+        if (text.contains("portfolio") || text.contains("investment") || text.contains("allocation")) {
+            return PORT_EMBED;
+        }
+        if (text.contains("tax") || text.contains("income") || text.contains("deductions")) {
+            return TAX_EMBED;
+        }
+        return ZERO_EMBED;
     }
 
     private UUID createClient(String firstName, String lastName, String email, String description)
@@ -0,0 +1,244 @@
+package com.baz.searchapi.integration;
+
+import com.baz.searchapi.config.PgVectorBinding;
+import com.baz.searchapi.config.TestcontainersConfig;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Client;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.service.EmbeddingService;
+import com.baz.searchapi.service.SearchEffort;
+import com.baz.searchapi.service.VectorIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recall of the halfvec inner-product index against the previous fp32 cosine setup, and of
+ * binary-quantized retrieval with rescoring against the halfvec index, on the same data in a
+ * real pgvector container.
+ *
+ * <p>Embeddings are clustered the way real ones are: 20 topics of 10 documents of 5 chunks,
+ * each level a noisy unit vector around its parent. The fp32 index is rebuilt on an
+ * {@code embedding::vector(384)} expression, exactly as V1 defined it. All legs search at the
+ * balanced effort with sequential scans disabled, so that each is answered by its HNSW index,
+ * and all are scored against an exact fp32 scan in Java. Recall and mean latency per leg are
+ * logged.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@Import(TestcontainersConfig.class)
+class VectorRecallIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorRecallIntegrationTest.class);
+    private static final int TOPICS = 20;
+    private static final int DOCS_PER_TOPIC = 10;
+    private static final int CHUNKS_PER_DOC = 5;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+    private static final int EF_SEARCH = SearchEffort.BALANCED.efSearch(K);
+    private static final int CANDIDATES = SearchEffort.BALANCED.chunkCandidates(K);
+
+    private static final String TOP_DOCUMENTS_FP32_COSINE = """
+        SELECT document_id, MAX(1.0 - dist) AS score
+        FROM (
+            SELECT document_id, (embedding::vector(384) <=> ?) AS dist
+            FROM   chunks
+            ORDER  BY dist
+            LIMIT  ?
+        ) nearest
+        GROUP  BY document_id
+        ORDER  BY score DESC, document_id
+        LIMIT  ?
+        """;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ChunkRepository chunkRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @MockitoBean private EmbeddingService embeddingService;
+
+    private final Random random = new Random(42);
+    private final List<float[]> docCentroids = new ArrayList<>();
+    private final Map<UUID, List<float[]>> chunksByDoc = new HashMap<>();
+    private final List<UUID> docIds = new ArrayList<>();
+
+    @BeforeAll
+    void insertClusteredCorpus() {
+        jdbcTemplate.execute("TRUNCATE TABLE clients CASCADE");
+        UUID clientId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO clients (id, first_name, last_name, email) VALUES (?, 'Recall', 'Test', ?)",
+                clientId, "recall@example.com");
+        Client client = new Client();
+        client.setId(clientId);
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (int t = 0; t < TOPICS; t++) {
+            float[] topic = randomUnit();
+            for (int d = 0; d < DOCS_PER_TOPIC; d++) {
+                float[] docCentroid = around(topic, 0.8f);
+                UUID docId = UUID.randomUUID();
+                jdbcTemplate.update("INSERT INTO documents (id, client_id, title, content) VALUES (?, ?, ?, 'recall')",
+                        docId, clientId, "Doc " + t + "-" + d);
+                Document document = new Document();
+                document.setId(docId);
+                document.setClient(client);
+                List<float[]> embeddings = new ArrayList<>();
+                for (int c = 0; c < CHUNKS_PER_DOC; c++) {
+                    float[] embedding = around(docCentroid, 0.5f);
+                    embeddings.add(embedding);
+                    chunks.add(new Chunk(UUID.randomUUID(), document, c, "chunk " + c, embedding));
+                }
+                docIds.add(docId);
+                docCentroids.add(docCentroid);
+                chunksByDoc.put(docId, embeddings);
+            }
+        }
+        chunkRepository.insertAll(chunks);
+
+        jdbcTemplate.execute("""
+            CREATE INDEX idx_chunks_embedding_fp32 ON chunks
+                USING hnsw ((embedding::vector(384)) vector_cosine_ops)
+                WITH (m = 16, ef_construction = 64)
+            """);
+        jdbcTemplate.execute("ANALYZE chunks");
+    }
+
+    @Test
+    void halfvecInnerProduct_recallMatchesFp32Cosine() {
+        List<float[]> queries = new ArrayList<>();
+        for (int q = 0; q < QUERIES; q++) {
+            queries.add(around(docCentroids.get(random.nextInt(docCentroids.size())), 0.5f));
+        }
+
+        Leg halfvec = measure(queries, query -> chunkRepository.findTopDocumentsByEmbedding(query, K, EF_SEARCH, CANDIDATES));
+        Leg fp32 = measure(queries, query -> {
+            jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + EF_SEARCH);
+            return jdbcTemplate.query(TOP_DOCUMENTS_FP32_COSINE,
+                    ps -> {
+                        PgVectorBinding.bind(ps, 1, query);
+                        ps.setInt(2, CANDIDATES);
+                        ps.setInt(3, K);
+                    },
+                    (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getDouble(2)});
+        });
+
+        log.info("recall@{} over {} queries: halfvec/ip {} ({} ms mean), vector/cosine {} ({} ms mean), "
+                        + "max halfvec score error {}",
+                K, QUERIES, halfvec.recall(), halfvec.meanMillis(), fp32.recall(), fp32.meanMillis(),
+                halfvec.maxScoreError());
+
+        assertTrue(halfvec.recall() >= 0.9, "halfvec recall " + halfvec.recall());
+        assertTrue(halfvec.recall() >= fp32.recall() - 0.02,
+                "halfvec recall " + halfvec.recall() + " vs fp32 " + fp32.recall());
+        assertTrue(halfvec.maxScoreError() < 0.005, "score error " + halfvec.maxScoreError());
+    }
+
+    @Test
+    void binaryQuantizedRescoring_recallAndLatencyAgainstHalfvec() {
+        List<float[]> queries = new ArrayList<>();
+        for (int q = 0; q < QUERIES; q++) {
+            queries.add(around(docCentroids.get(random.nextInt(docCentroids.size())), 0.5f));
+        }
+
+        Leg halfvec = measure(queries, query -> chunkRepository.findTopDocumentsByEmbedding(query, K, EF_SEARCH, CANDIDATES));
+        Leg binary = measure(queries,
+                query -> chunkRepository.findTopDocumentsByBinaryEmbedding(query, K, EF_SEARCH, CANDIDATES, 4));
+
+        log.info("recall@{} over {} queries: halfvec/ip {} ({} ms mean), binary+rescore x4 {} ({} ms mean), "
+                        + "max binary score error {}",
+                K, QUERIES, halfvec.recall(), halfvec.meanMillis(), binary.recall(), binary.meanMillis(),
+                binary.maxScoreError());
+
+        assertTrue(binary.recall() >= 0.8, "binary recall " + binary.recall());
+        // Rescoring is exact up to fp16, so any document returned carries its true score
+        assertTrue(binary.maxScoreError() < 0.005, "score error " + binary.maxScoreError());
+    }
+
+    // --- Helpers ---
+
+    private record Leg(double recall, double meanMillis, double maxScoreError) {}
+
+    private Leg measure(List<float[]> queries, Function<float[], List<Object[]>> search) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int hits = 0;
+        long nanos = 0;
+        double maxScoreError = 0;
+        for (float[] query : queries) {
+            Map<UUID, Double> exact = exactScores(query);
+            Set<Object> expected = new HashSet<>();
+            VectorIndex.topDocuments(exact, K).forEach(row -> expected.add(row[0]));
+
+            long[] elapsed = new long[1];
+            List<Object[]> rows = tx.execute(status -> {
+                // Force the HNSW index even though the table is small enough to seq-scan
+                jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+                long start = System.nanoTime();
+                List<Object[]> result = search.apply(query);
+                elapsed[0] = System.nanoTime() - start;
+                return result;
+            });
+            nanos += elapsed[0];
+            for (Object[] row : rows) {
+                if (expected.contains(row[0])) hits++;
+                maxScoreError = Math.max(maxScoreError, Math.abs((Double) row[1] - exact.get((UUID) row[0])));
+            }
+        }
+        return new Leg((double) hits / (queries.size() * K), nanos / 1e6 / queries.size(), maxScoreError);
+    }
+
+    /** Best chunk dot product per document, in fp32. */
+    private Map<UUID, Double> exactScores(float[] query) {
+        Map<UUID, Double> best = new HashMap<>();
+        for (UUID docId : docIds) {
+            for (float[] embedding : chunksByDoc.get(docId)) {
+                double dot = 0;
+                for (int i = 0; i < query.length; i++) dot += query[i] * embedding[i];
+                best.merge(docId, dot, Math::max);
+            }
+        }
+        return best;
+    }
+
+    private float[] randomUnit() {
+        float[] v = new float[384];
+        for (int i = 0; i < v.length; i++) v[i] = (float) random.nextGaussian();
+        return normalize(v);
+    }
+
+    /** A unit vector near {@code centre}: centre plus a random unit vector scaled by spread. */
+    private float[] around(float[] centre, float spread) {
+        float[] noise = randomUnit();
+        float[] v = new float[centre.length];
+        for (int i = 0; i < v.length; i++) v[i] = centre[i] + spread * noise[i];
+        return normalize(v);
+    }
+
+    private static float[] normalize(float[] v) {
+        double sum = 0;
+        for (float x : v) sum += x * x;
+        float norm = (float) Math.sqrt(sum);
+        for (int i = 0; i < v.length; i++) v[i] /= norm;
+        return v;
+    }
+}
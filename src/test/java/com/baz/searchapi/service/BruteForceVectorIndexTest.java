@@ -0,0 +1,40 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.repository.ChunkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.baz.searchapi.service.VectorIndexFixtures.axis;
+import static com.baz.searchapi.service.VectorIndexFixtures.chunk;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** What sets the brute-force index apart; the shared behaviour is in {@link VectorIndexContractTest}. */
+@ExtendWith(MockitoExtension.class)
+class BruteForceVectorIndexTest {
+
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Test
+    void remove_dropsEveryChunkOfTheDocument() {
+        UUID docA = UUID.randomUUID();
+        UUID docB = UUID.randomUUID();
+        BruteForceVectorIndex index = new BruteForceVectorIndex(chunkRepository, transactionManager,
+                VectorOps.select(false), VectorIndex.Backend.BRUTE_FORCE);
+        index.add(List.of(chunk(docA, axis(0)), chunk(docA, axis(1)), chunk(docB, axis(2))));
+
+        index.remove(List.of(docA));
+
+        // Unlike the graph and the file, the map frees the removed chunks at once
+        assertEquals(1, index.size());
+        List<Object[]> rows = index.findTopDocuments(axis(0), 10);
+        assertEquals(1, rows.size());
+        assertEquals(docB, rows.getFirst()[0]);
+    }
+}
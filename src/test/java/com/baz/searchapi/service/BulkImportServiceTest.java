@@ -0,0 +1,187 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.dto.BulkImportResponse;
+import com.baz.searchapi.model.dto.BulkImportResponse.ItemResult;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Client;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ClientRepository;
+import com.baz.searchapi.repository.DocumentRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+
+    @Mock private ClientRepository clientRepository;
+    @Mock private DocumentRepository documentRepository;
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private DocumentService documentService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final UUID clientId = UUID.randomUUID();
+    private final List<Integer> embeddedGroupSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Client client = new Client();
+        client.setId(clientId);
+        lenient().when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        lenient().when(documentRepository.findExistingLowerTitles(eq(clientId), anyCollection())).thenReturn(List.of());
+        lenient().when(documentService.buildChunks(anyList())).thenAnswer(inv -> {
+            List<Document> docs = inv.getArgument(0);
+            embeddedGroupSizes.add(docs.size());
+            return docs.stream().map(d -> List.of(new Chunk())).toList();
+        });
+        lenient().when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> {
+            List<Document> docs = inv.getArgument(0);
+            docs.forEach(d -> d.setId(UUID.randomUUID()));
+            return docs;
+        });
+    }
+
+    @Test
+    void importDocuments_embedsAndCommitsInGroups() throws Exception {
+        BulkImportResponse response = newService(2).importDocuments(clientId, ndjson(
+                doc("A"), doc("B"), doc("C"), doc("D"), doc("E")));
+
+        assertEquals(5, response.total());
+        assertEquals(5, response.created());
+        assertEquals(0, response.failed());
+        assertEquals(List.of(2, 2, 1), embeddedGroupSizes);
+        verify(documentRepository, times(3)).saveAllAndFlush(anyList());
+        verify(chunkRepository, times(3)).insertAll(anyList());
+        assertTrue(response.items().stream().allMatch(r -> r.documentId() != null));
+    }
+
+    @Test
+    void importDocuments_badItems_failIndividually() throws Exception {
+        BulkImportResponse response = newService(50).importDocuments(clientId, ndjson(
+                doc("Passport"),
+                "{not json",
+                "{\"title\":\"No content\"}",
+                doc("passport"),
+                doc("Utility Bill")));
+
+        assertEquals(5, response.total());
+        assertEquals(2, response.created());
+        List<ItemResult> items = response.items();
+        assertEquals("CREATED", items.get(0).status());
+        assertEquals("Malformed JSON", items.get(1).error());
+        assertEquals("content is required", items.get(2).error());
+        assertEquals("Duplicate title earlier in this import", items.get(3).error());
+        assertEquals("CREATED", items.get(4).status());
+        assertEquals(List.of(2), embeddedGroupSizes);
+    }
+
+    @Test
+    void importDocuments_titleAlreadyExists_failsThatItemOnly() throws Exception {
+        when(documentRepository.findExistingLowerTitles(eq(clientId), anyCollection()))
+                .thenReturn(List.of("bank statement"));
+
+        BulkImportResponse response = newService(50).importDocuments(clientId, ndjson(
+                doc("Bank Statement"), doc("Tax Return")));
+
+        assertEquals(1, response.created());
+        assertEquals("A document with this title already exists for this client", response.items().get(0).error());
+        assertEquals("CREATED", response.items().get(1).status());
+    }
+
+    @Test
+    void importDocuments_blankLinesIgnored() throws Exception {
+        BulkImportResponse response = newService(50).importDocuments(clientId, ndjson(
+                doc("A"), "", "   ", doc("B")));
+
+        assertEquals(2, response.total());
+        assertEquals(1, response.items().get(1).index());
+    }
+
+    @Test
+    void importDocuments_embeddingFails_marksGroupFailedAndContinues() throws Exception {
+        when(documentService.buildChunks(anyList()))
+                .thenThrow(new RuntimeException("Embedding inference failed"))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).stream().map(d -> List.of(new Chunk())).toList());
+
+        BulkImportResponse response = newService(2).importDocuments(clientId, ndjson(
+                doc("A"), doc("B"), doc("C")));
+
+        assertEquals(1, response.created());
+        assertEquals("Embedding failed", response.items().get(0).error());
+        assertEquals("Embedding failed", response.items().get(1).error());
+        assertEquals("CREATED", response.items().get(2).status());
+    }
+
+    @Test
+    void importDocuments_groupCommitConflict_retriesDocumentsIndividually() throws Exception {
+        when(documentRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(inv -> {
+            Document d = inv.getArgument(0);
+            if (d.getTitle().equals("B")) throw new DataIntegrityViolationException("duplicate key");
+            d.setId(UUID.randomUUID());
+            return d;
+        });
+
+        BulkImportResponse response = newService(50).importDocuments(clientId, ndjson(doc("A"), doc("B")));
+
+        assertEquals(1, response.created());
+        assertEquals("CREATED", response.items().get(0).status());
+        assertEquals("A document with this title already exists for this client", response.items().get(1).error());
+    }
+
+    @Test
+    void importDocuments_clientNotFound_throws404() {
+        UUID unknown = UUID.randomUUID();
+        when(clientRepository.findById(unknown)).thenReturn(Optional.empty());
+
+        var ex = assertThrows(ResponseStatusException.class,
+                () -> newService(50).importDocuments(unknown, ndjson(doc("A"))));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(documentService, never()).buildChunks(anyList());
+    }
+
+    // --- Helpers ---
+
+    private BulkImportService newService(int groupSize) {
+        return new BulkImportService(clientRepository, documentRepository, chunkRepository, documentService,
+                JsonMapper.builder().build(), Validation.buildDefaultValidatorFactory().getValidator(),
+                transactionManager, groupSize);
+    }
+
+    private static String doc(String title) {
+        return "{\"title\":\"" + title + "\",\"content\":\"Content of " + title + "\"}";
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,6 +2,9 @@ package com.baz.searchapi.service;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -10,7 +13,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class ChunkingTest {
 
-    private final DocumentService documentService = new DocumentService(null, null, null, null);
+    private final DocumentService documentService = new DocumentService(null, null, null, null, null, null, null, null, null);
 
     @Test
     void shortDocument_singleChunk() {
@@ -79,6 +82,60 @@ class ChunkingTest {
         assertEquals(1, chunks.size());
     }
 
+    @Test
+    void mixedWhitespace_collapsedToSingleSpaces() {
+        List<String> chunks = documentService.chunkText("\n  Passport\tcopy\r\n\nexpires  2031 \f");
+        assertEquals(List.of("Passport copy expires 2031"), chunks);
+    }
+
+    @Test
+    void matchesSplitBasedChunking_forEveryLengthAroundTheBoundaries() {
+        for (int words = 0; words <= 700; words++) {
+            String text = generateWords(words).replace(" word1", "\n\tword1");
+            assertEquals(splitBasedChunks(text), documentService.chunkText(text), words + " words");
+        }
+    }
+
+    @Test
+    void spans_areCharacterOffsetsOfFirstAndLastWord() {
+        String text = "  " + generateWords(180) + "\n";
+        Iterator<WordChunker.Span> spans = WordChunker.spans(text);
+
+        WordChunker.Span first = spans.next();
+        WordChunker.Span second = spans.next();
+        assertFalse(spans.hasNext());
+        assertTrue(text.substring(first.start(), first.end()).startsWith("word0 "));
+        assertTrue(text.substring(first.start(), first.end()).endsWith(" word149"));
+        assertTrue(text.substring(second.start(), second.end()).startsWith("word125 "));
+        assertTrue(text.substring(second.start(), second.end()).endsWith(" word179"));
+    }
+
+    /** The previous String.split implementation, kept as the reference for chunk boundaries. */
+    private static List<String> splitBasedChunks(String text) {
+        String[] words = text.trim().split("\\s+");
+        if (words.length <= 150) {
+            return List.of(String.join(" ", words));
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        while (start < words.length) {
+            int end = Math.min(start + 150, words.length);
+            ranges.add(new int[]{start, end});
+            if (end >= words.length) break;
+            start += 125;
+        }
+        if (ranges.size() > 1) {
+            int[] last = ranges.getLast();
+            if (last[1] - last[0] < 50) {
+                ranges.removeLast();
+                ranges.getLast()[1] = last[1];
+            }
+        }
+        return ranges.stream()
+                .map(r -> String.join(" ", Arrays.copyOfRange(words, r[0], r[1])))
+                .toList();
+    }
+
     private String generateWords(int count) {
         return IntStream.range(0, count)
                 .mapToObj(i -> "word" + i)
@@ -2,6 +2,7 @@ package com.baz.searchapi.service;
 
 import com.baz.searchapi.model.dto.ClientRequest;
 import com.baz.searchapi.model.dto.ClientResponse;
+import com.baz.searchapi.model.dto.SearchResultItem;
 import com.baz.searchapi.model.entity.Client;
 import com.baz.searchapi.repository.ClientRepository;
 import org.junit.jupiter.api.Test;
@@ -14,10 +15,13 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -71,4 +75,34 @@ class ClientServiceTest {
         verify(clientRepository).saveAndFlush(captor.capture());
         assertEquals("john@example.com", captor.getValue().getEmail());
     }
+
+    @Test
+    void searchClients_keepsSimilarityOrderAndAttachesScore() {
+        var jane = new Client(UUID.randomUUID(), "Jane", "Smith", "jane@example.com", "Retirement advisor", null);
+        var janet = new Client(UUID.randomUUID(), "Janet", "Jones", "janet@example.com", null, null);
+
+        when(clientRepository.searchByTrigram("jane", 20)).thenReturn(List.of(
+                new Object[]{jane.getId(), 1.0f},
+                new Object[]{janet.getId(), 0.8f}));
+        // findAllById makes no ordering guarantee
+        when(clientRepository.findAllById(anyIterable())).thenReturn(List.of(janet, jane));
+
+        List<SearchResultItem> results = clientService.searchClients("jane", 20);
+
+        assertEquals(2, results.size());
+        var first = (SearchResultItem.ClientResult) results.get(0);
+        var second = (SearchResultItem.ClientResult) results.get(1);
+        assertEquals("Jane", first.firstName());
+        assertEquals(1.0, first.score(), 1e-6);
+        assertEquals("Janet", second.firstName());
+        assertEquals(0.8, second.score(), 1e-6);
+    }
+
+    @Test
+    void searchClients_noMatches_skipsHydration() {
+        when(clientRepository.searchByTrigram("nobody", 20)).thenReturn(List.of());
+
+        assertTrue(clientService.searchClients("nobody", 20).isEmpty());
+        verify(clientRepository, never()).findAllById(anyIterable());
+    }
 }
@@ -1,40 +1,67 @@
 package com.baz.searchapi.service;
 
+import com.baz.searchapi.model.dto.DocumentSnippet;
 import com.baz.searchapi.model.dto.SearchResultItem;
+import com.baz.searchapi.model.entity.Chunk;
 import com.baz.searchapi.model.entity.Client;
 import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.model.dto.DocumentRequest;
 import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ClientRepository;
 import com.baz.searchapi.repository.DocumentRepository;
+import com.baz.searchapi.repository.DocumentSearchRepository;
+import com.baz.searchapi.repository.DocumentSearchRepository.HybridResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DocumentServiceTest {
 
     @Mock private DocumentRepository documentRepository;
+    @Mock private ClientRepository clientRepository;
     @Mock private EmbeddingService embeddingService;
     @Mock private ChunkRepository chunkRepository;
-
-    @InjectMocks
+    @Mock private QueryEmbeddingCache queryEmbeddingCache;
+    @Mock private TokenChunker tokenChunker;
+    @Mock private HnswChunkIndex hnswChunkIndex;
+    @Mock private FlatVectorStore flatVectorStore;
+    @Mock private BruteForceVectorIndex bruteForceIndex;
+    @Spy private SearchFanOut searchFanOut =
+            new SearchFanOut(Executors.newVirtualThreadPerTaskExecutor(), Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+    private SemanticSearchRouter router;
     private DocumentService documentService;
 
     @BeforeEach
     void setUp() {
-        lenient().when(embeddingService.embed(anyString())).thenReturn(new float[384]);
-        lenient().when(documentRepository.findDocumentIdsByKeyword(anyString())).thenReturn(List.of());
-        lenient().when(chunkRepository.findTopDocumentsByEmbedding(anyString())).thenReturn(List.of());
+        // No in-process index is loaded, so the semantic leg routes to chunkRepository
+        PgVectorIndex pgVectorIndex = new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.NONE, 4);
+        router = new SemanticSearchRouter(pgVectorIndex, hnswChunkIndex, bruteForceIndex, flatVectorStore, 50_000);
+        documentService = documentService(DocumentService.Ranking.JAVA);
+        lenient().when(queryEmbeddingCache.embed(anyString())).thenReturn(new float[384]);
+        lenient().when(documentRepository.findDocumentIdsByKeyword(anyString(), anyInt())).thenReturn(List.of());
+        lenient().when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt())).thenReturn(List.of());
     }
 
     // --- Semantic search ---
@@ -44,11 +71,11 @@ class DocumentServiceTest {
         UUID docId = UUID.randomUUID();
         Document doc = stubDocument(docId, "Passport Copy");
 
-        when(chunkRepository.findTopDocumentsByEmbedding(anyString()))
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
                 .thenReturn(semanticRows(docId, 0.85));
         when(documentRepository.findAllById(anyIterable())).thenReturn(List.of(doc));
 
-        List<SearchResultItem> results = documentService.searchDocuments("identity verification");
+        List<SearchResultItem> results = documentService.searchDocuments("identity verification", 20);
 
         assertEquals(1, results.size());
         assertEquals("document", results.getFirst().type());
@@ -60,10 +87,10 @@ class DocumentServiceTest {
     void searchDocuments_semanticMatch_belowThreshold_isExcluded() {
         UUID docId = UUID.randomUUID();
 
-        when(chunkRepository.findTopDocumentsByEmbedding(anyString()))
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
                 .thenReturn(semanticRows(docId, 0.2));
 
-        assertTrue(documentService.searchDocuments("identity verification").isEmpty());
+        assertTrue(documentService.searchDocuments("identity verification", 20).isEmpty());
     }
 
     @Test
@@ -72,11 +99,11 @@ class DocumentServiceTest {
         Document doc = stubDocument(docId, "Tax Return");
 
         // semantic=0.36, no keyword → combined = 0.7 * 0.36 = 0.252, just above threshold 0.25.
-        when(chunkRepository.findTopDocumentsByEmbedding(anyString()))
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
                 .thenReturn(semanticRows(docId, 0.36));
         when(documentRepository.findAllById(anyIterable())).thenReturn(List.of(doc));
 
-        assertEquals(1, documentService.searchDocuments("income").size());
+        assertEquals(1, documentService.searchDocuments("income", 20).size());
     }
 
     // --- Keyword boost ---
@@ -89,13 +116,13 @@ class DocumentServiceTest {
         // Semantic score alone maps to 0.7 * 0.35 = 0.245 (below threshold 0.25).
         // Keyword normalises to 1.0 (only result), contributing 0.3 * 1.0 = 0.3.
         // Combined: 0.245 + 0.3 = 0.545 >= 0.25 → included.
-        when(chunkRepository.findTopDocumentsByEmbedding(anyString()))
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
                 .thenReturn(semanticRows(docId, 0.35));
-        when(documentRepository.findDocumentIdsByKeyword(anyString()))
+        when(documentRepository.findDocumentIdsByKeyword(anyString(), anyInt()))
                 .thenReturn(keywordRows(docId, 1.0));
         when(documentRepository.findAllById(anyIterable())).thenReturn(List.of(doc));
 
-        assertEquals(1, documentService.searchDocuments("portfolio").size());
+        assertEquals(1, documentService.searchDocuments("portfolio", 20).size());
     }
 
     @Test
@@ -104,11 +131,30 @@ class DocumentServiceTest {
         Document doc = stubDocument(docId, "Utility Bill");
 
         // No semantic match. Keyword normalises to 1.0 → combined = 0.3 * 1.0 = 0.3 >= 0.25.
-        when(documentRepository.findDocumentIdsByKeyword(anyString()))
+        when(documentRepository.findDocumentIdsByKeyword(anyString(), anyInt()))
+                .thenReturn(keywordRows(docId, 0.8));
+        when(documentRepository.findAllById(anyIterable())).thenReturn(List.of(doc));
+
+        List<SearchResultItem> results = documentService.searchDocuments("utility", 20);
+
+        assertEquals(1, results.size());
+        assertEquals("Utility Bill", ((SearchResultItem.DocumentResult) results.getFirst()).title());
+    }
+
+    // --- Partial results ---
+
+    @Test
+    void searchDocuments_semanticLegFails_keywordResultsStillReturned() {
+        UUID docId = UUID.randomUUID();
+        Document doc = stubDocument(docId, "Utility Bill");
+
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
+                .thenThrow(new RuntimeException("connection reset"));
+        when(documentRepository.findDocumentIdsByKeyword(anyString(), anyInt()))
                 .thenReturn(keywordRows(docId, 0.8));
         when(documentRepository.findAllById(anyIterable())).thenReturn(List.of(doc));
 
-        List<SearchResultItem> results = documentService.searchDocuments("utility");
+        List<SearchResultItem> results = documentService.searchDocuments("utility", 20);
 
         assertEquals(1, results.size());
         assertEquals("Utility Bill", ((SearchResultItem.DocumentResult) results.getFirst()).title());
@@ -121,25 +167,317 @@ class DocumentServiceTest {
         UUID docIdHigh = UUID.randomUUID();
         UUID docIdLow = UUID.randomUUID();
 
-        when(chunkRepository.findTopDocumentsByEmbedding(anyString()))
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
                 .thenReturn(semanticRows(docIdLow, 0.5, docIdHigh, 0.9));
         when(documentRepository.findAllById(anyIterable()))
                 .thenReturn(List.of(stubDocument(docIdHigh, "High Score Doc"), stubDocument(docIdLow, "Low Score Doc")));
 
-        List<SearchResultItem> results = documentService.searchDocuments("query");
+        List<SearchResultItem> results = documentService.searchDocuments("query", 20);
 
         assertEquals(2, results.size());
         assertEquals("High Score Doc", ((SearchResultItem.DocumentResult) results.get(0)).title());
         assertEquals("Low Score Doc", ((SearchResultItem.DocumentResult) results.get(1)).title());
     }
 
+    @Test
+    void searchDocuments_limit_keepsOnlyTopKAndHydratesOnlyThose() {
+        UUID a = UUID.randomUUID(), b = UUID.randomUUID(), c = UUID.randomUUID(), d = UUID.randomUUID();
+
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
+                .thenReturn(semanticRows(a, 0.5, b, 0.9, c, 0.3, d, 0.7));
+        when(documentRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(stubDocument(d, "Doc D"), stubDocument(b, "Doc B")));
+
+        List<SearchResultItem> results = documentService.searchDocuments("query", 2);
+
+        assertEquals(List.of(b, d), results.stream().map(SearchResultItem::id).toList());
+        verify(documentRepository).findAllById(argThat(ids -> ids instanceof List<?> l && l.size() == 2));
+    }
+
+    @Test
+    void searchDocuments_limit_isPushedDownToBothLegsWithHeadroom() {
+        documentService.searchDocuments("query", 5);
+
+        verify(chunkRepository).findTopDocumentsByEmbedding(any(float[].class), eq(20), anyInt(), anyInt());
+        verify(documentRepository).findDocumentIdsByKeyword("query", 20);
+    }
+
+    @Test
+    void searchDocuments_equalScores_orderIsStable() {
+        UUID low = new UUID(0, 1), high = new UUID(0, 2);
+
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
+                .thenReturn(semanticRows(high, 0.8, low, 0.8));
+        when(documentRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(stubDocument(high, "High"), stubDocument(low, "Low")));
+
+        List<SearchResultItem> results = documentService.searchDocuments("query", 20);
+
+        assertEquals(List.of(low, high), results.stream().map(SearchResultItem::id).toList());
+    }
+
     @Test
     void searchDocuments_noMatches_returnsEmptyList() {
-        assertTrue(documentService.searchDocuments("xyzunknown").isEmpty());
+        assertTrue(documentService.searchDocuments("xyzunknown", 20).isEmpty());
+    }
+
+    // --- SQL ranking ---
+
+    @Test
+    void searchDocuments_sqlRanking_runsOneHybridQueryWithoutHydration() {
+        UUID docId = UUID.randomUUID();
+        when(documentRepository.findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), eq(20),
+                anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(new HybridResult(List.of(hybridMatch(docId, 0.8)), false));
+
+        List<SearchResultItem> results = documentService(DocumentService.Ranking.SQL).searchDocuments("query", 5);
+
+        assertEquals(List.of(docId), results.stream().map(SearchResultItem::id).toList());
+        assertEquals(0.8, ((SearchResultItem.DocumentResult) results.getFirst()).score(), 1e-9);
+        verify(chunkRepository, never()).findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt());
+        verify(documentRepository, never()).findDocumentIdsByKeyword(anyString(), anyInt());
+        verify(documentRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void searchDocuments_sqlRanking_inProcessIndexLoaded_ranksInJava() {
+        when(hnswChunkIndex.isEnabled()).thenReturn(true);
+
+        documentService(DocumentService.Ranking.SQL).searchDocuments("query", 5);
+
+        verify(hnswChunkIndex).findTopDocuments(any(float[].class), eq(20), any(SearchEffort.class));
+        verify(documentRepository, never()).findTopDocumentsHybrid(any(), any(), anyString(), anyInt(), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    void searchClientDocuments_sqlRanking_filtersByClientInTheHybridQuery() {
+        UUID clientId = UUID.randomUUID();
+        when(clientRepository.existsById(clientId)).thenReturn(true);
+        when(documentRepository.findTopDocumentsHybrid(eq(clientId), any(float[].class), eq("tax"), anyInt(), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean())).thenReturn(new HybridResult(List.of(), false));
+
+        documentService(DocumentService.Ranking.SQL).searchClientDocuments(clientId, "tax", 10, SearchEffort.BALANCED, ResultContent.FULL);
+
+        verify(documentRepository).findTopDocumentsHybrid(eq(clientId), any(float[].class), eq("tax"), eq(10), eq(40),
+                anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    void searchDocuments_sqlRankingAdaptive_shortPageFromExhaustedScan_runsOnce() {
+        when(documentRepository.findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(new HybridResult(List.of(hybridMatch(UUID.randomUUID(), 0.8)), false));
+
+        documentService(DocumentService.Ranking.SQL).searchDocuments("query", 5, SearchEffort.ADAPTIVE);
+
+        verify(documentRepository).findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    void searchDocuments_sqlRankingAdaptive_shortChunkScan_rerunsDeeper() {
+        UUID docId = UUID.randomUUID();
+        when(documentRepository.findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(new HybridResult(List.of(), true))
+                .thenReturn(new HybridResult(List.of(hybridMatch(docId, 0.8)), false));
+
+        List<SearchResultItem> results =
+                documentService(DocumentService.Ranking.SQL).searchDocuments("query", 5, SearchEffort.ADAPTIVE);
+
+        assertEquals(List.of(docId), results.stream().map(SearchResultItem::id).toList());
+        verify(documentRepository).findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), anyInt(),
+                eq(SearchEffort.ADAPTIVE.efSearch(20)), anyInt(), any(), anyBoolean());
+        verify(documentRepository).findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), anyInt(),
+                eq(SearchEffort.ADAPTIVE.deeper().efSearch(20)), anyInt(), any(), anyBoolean());
+    }
+
+    // --- Snippets ---
+
+    @Test
+    void searchDocuments_snippets_loadBestChunksInsteadOfDocuments() {
+        UUID docId = UUID.randomUUID();
+        DocumentSnippet snippet = new DocumentSnippet("the best chunk", 120, 134, null);
+        when(chunkRepository.findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt()))
+                .thenReturn(semanticRows(docId, 0.9));
+        when(documentRepository.findSnippets(eq(List.of(docId)), any(float[].class), eq("query")))
+                .thenReturn(List.of(new DocumentSearchRepository.SnippetMatch(docId, UUID.randomUUID(), "Statement",
+                        snippet, LocalDateTime.now())));
+
+        List<SearchResultItem> results =
+                documentService.searchDocuments("query", 20, SearchEffort.BALANCED, ResultContent.SNIPPET);
+
+        SearchResultItem.DocumentResult result = (SearchResultItem.DocumentResult) results.getFirst();
+        assertEquals(docId, result.id());
+        assertEquals(snippet, result.snippet());
+        assertNull(result.content());
+        verify(documentRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void searchDocuments_snippets_noMatches_skipsSnippetQuery() {
+        assertTrue(documentService.searchDocuments("xyzunknown", 20, SearchEffort.BALANCED, ResultContent.SNIPPET)
+                .isEmpty());
+
+        verify(documentRepository, never()).findSnippets(anyCollection(), any(float[].class), anyString());
+    }
+
+    @Test
+    void searchDocuments_sqlRankingSnippets_requestsSnippetsFromHybridQuery() {
+        when(documentRepository.findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), anyInt(), anyInt(),
+                anyInt(), anyInt(), any(), anyBoolean())).thenReturn(new HybridResult(List.of(), false));
+        documentService(DocumentService.Ranking.SQL)
+                .searchDocuments("query", 5, SearchEffort.BALANCED, ResultContent.SNIPPET);
+
+        verify(documentRepository).findTopDocumentsHybrid(isNull(), any(float[].class), eq("query"), eq(5), eq(20),
+                anyInt(), anyInt(), any(), eq(true));
+        verify(documentRepository, never()).findSnippets(anyCollection(), any(float[].class), anyString());
+    }
+
+    // --- Document fetch ---
+
+    @Test
+    void getDocument_returnsFullContent() {
+        UUID docId = UUID.randomUUID();
+        when(documentRepository.findById(docId)).thenReturn(Optional.of(stubDocument(docId, "Statement")));
+
+        assertEquals("Some content about Statement", documentService.getDocument(docId).content());
+    }
+
+    @Test
+    void getDocument_unknownDocument_throws404() {
+        UUID docId = UUID.randomUUID();
+        when(documentRepository.findById(docId)).thenReturn(Optional.empty());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> documentService.getDocument(docId));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    // --- Ingestion ---
+
+    @Test
+    void createDocument_embedsAllChunksInOneBatch() {
+        UUID clientId = UUID.randomUUID();
+        Client client = new Client();
+        client.setId(clientId);
+        String content = "word ".repeat(1000).trim();
+
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(documentRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
+
+        documentService.createDocument(clientId, new DocumentRequest("Long Doc", content));
+
+        verify(embeddingService, times(1)).embedBatch(argThat(texts -> texts.size() == 8));
+        verify(embeddingService, never()).embed(anyString());
+    }
+
+    @Test
+    void createDocument_insertsAllChunksInOneBatch() {
+        UUID clientId = UUID.randomUUID();
+        Client client = new Client();
+        client.setId(clientId);
+        String content = "word ".repeat(1000).trim();
+
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(documentRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
+
+        documentService.createDocument(clientId, new DocumentRequest("Long Doc", content));
+
+        verify(chunkRepository, times(1)).insertAll(argThat(chunks -> chunks.size() == 8
+                && chunks.get(7).getChunkIndex() == 7
+                && chunks.stream().allMatch(c -> c.getEmbedding().length == 384)));
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    void buildChunks_recordsUtf8ByteOffsetsOfEachChunk() {
+        Document doc = stubDocument(UUID.randomUUID(), "Receipt");
+        doc.setContent("  café au lait ");
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
+
+        Chunk chunk = documentService.buildChunks(doc).getFirst();
+
+        // "é" is 2 bytes in UTF-8, so the 12-character chunk ends at byte 2 + 13
+        assertEquals(2, chunk.getStartByte());
+        assertEquals(15, chunk.getEndByte());
+    }
+
+    @Test
+    void buildChunks_tokenStrategy_embedsChunkTokenIdsWithoutRetokenizing() {
+        Document doc = stubDocument(UUID.randomUUID(), "Statement");
+        long[] first = {101, 7, 8, 102};
+        long[] second = {101, 8, 9, 102};
+
+        when(tokenChunker.isEnabled()).thenReturn(true);
+        when(tokenChunker.chunk(doc.getContent())).thenReturn(List.of(
+                new TokenChunker.TokenizedChunk("a b", first, 0, 3),
+                new TokenChunker.TokenizedChunk("b c", second, 2, 5)));
+        when(embeddingService.embedTokenIds(anyList())).thenAnswer(inv ->
+                ((List<?>) inv.getArgument(0)).stream().map(t -> new float[384]).toList());
+
+        List<Chunk> chunks = documentService.buildChunks(doc);
+
+        assertEquals(List.of("a b", "b c"), chunks.stream().map(Chunk::getText).toList());
+        verify(embeddingService).embedTokenIds(argThat(ids -> ids.size() == 2
+                && ids.get(0) == first && ids.get(1) == second));
+        verify(embeddingService, never()).embedBatch(anyList());
+    }
+
+    // --- Client-scoped search ---
+
+    @Test
+    void searchClientDocuments_bothLegsFilterByClient() {
+        UUID clientId = UUID.randomUUID();
+        UUID semanticDoc = UUID.randomUUID();
+        UUID keywordDoc = UUID.randomUUID();
+        when(clientRepository.existsById(clientId)).thenReturn(true);
+        when(chunkRepository.findTopDocumentsByEmbeddingForClient(eq(clientId), any(float[].class), anyInt(), anyInt(), anyInt()))
+                .thenReturn(semanticRows(semanticDoc, 0.9));
+        when(documentRepository.findDocumentIdsByKeywordForClient(eq(clientId), anyString(), anyInt()))
+                .thenReturn(keywordRows(keywordDoc, 0.1));
+        when(documentRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(stubDocument(semanticDoc, "Semantic"), stubDocument(keywordDoc, "Keyword")));
+
+        List<SearchResultItem> results = documentService.searchClientDocuments(clientId, "tax", 10, SearchEffort.BALANCED, ResultContent.FULL);
+
+        assertEquals(2, results.size());
+        assertEquals(semanticDoc, results.getFirst().id());
+        verify(chunkRepository, never()).findTopDocumentsByEmbedding(any(float[].class), anyInt(), anyInt(), anyInt());
+        verify(documentRepository, never()).findDocumentIdsByKeyword(anyString(), anyInt());
+    }
+
+    @Test
+    void searchClientDocuments_unknownClient_throws404() {
+        UUID clientId = UUID.randomUUID();
+        when(clientRepository.existsById(clientId)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> documentService.searchClientDocuments(clientId, "tax", 10, SearchEffort.BALANCED, ResultContent.FULL));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(queryEmbeddingCache, never()).embed(anyString());
     }
 
     // --- Helpers ---
 
+    private DocumentService documentService(DocumentService.Ranking ranking) {
+        return new DocumentService(documentRepository, clientRepository, embeddingService,
+                chunkRepository, queryEmbeddingCache, searchFanOut, tokenChunker, router, ranking);
+    }
+
+    private static DocumentSearchRepository.HybridMatch hybridMatch(UUID id, double score) {
+        return new DocumentSearchRepository.HybridMatch(id, UUID.randomUUID(), "Doc", "Some content", null,
+                LocalDateTime.now(), score);
+    }
+
     private Document stubDocument(UUID id, String title) {
         Client client = new Client();
         client.setId(UUID.randomUUID());
@@ -0,0 +1,77 @@
+package com.baz.searchapi.service;
+
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class EmbeddingServiceTest {
+
+    @Test
+    void pairwiseCosine_identicalVectors_isOne() {
+        double[] cosines = EmbeddingService.pairwiseCosine(
+                List.of(new float[]{0.6f, 0.8f}), List.of(new float[]{0.6f, 0.8f}));
+
+        assertEquals(1.0, cosines[0], 1e-6);
+    }
+
+    @Test
+    void pairwiseCosine_comparesVectorsAtSameIndexOnly() {
+        double[] cosines = EmbeddingService.pairwiseCosine(
+                List.of(new float[]{1f, 0f}, new float[]{0f, 1f}),
+                List.of(new float[]{1f, 0f}, new float[]{1f, 0f}));
+
+        assertEquals(1.0, cosines[0], 1e-6);
+        assertEquals(0.0, cosines[1], 1e-6);
+    }
+
+    @Test
+    void pairwiseCosine_isScaleInvariant() {
+        // Quantized output is re-normalised, but the check must not depend on that
+        double[] cosines = EmbeddingService.pairwiseCosine(
+                List.of(new float[]{1f, 1f}), List.of(new float[]{3f, 3f}));
+
+        assertEquals(1.0, cosines[0], 1e-6);
+    }
+
+    @Test
+    void pairwiseCosine_zeroVector_scoresZero() {
+        double[] cosines = EmbeddingService.pairwiseCosine(
+                List.of(new float[]{1f, 0f}), List.of(new float[]{0f, 0f}));
+
+        assertEquals(0.0, cosines[0]);
+    }
+
+    @Test
+    void pairwiseCosine_sizeMismatch_throws() {
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingService.pairwiseCosine(
+                List.of(new float[]{1f}), List.of()));
+    }
+
+    @Test
+    void boundaryTokenIds_paddedTokenizer_skipsPadding() throws Exception {
+        Path tokenizerPath = Path.of(EmbeddingServiceTest.class.getResource("/embedding/padded-tokenizer.json").toURI());
+        try (HuggingFaceTokenizer tokenizer = HuggingFaceTokenizer.newInstance(tokenizerPath)) {
+            long[] ids = EmbeddingService.boundaryTokenIds(tokenizer.encode(""));
+
+            assertArrayEquals(new long[]{101, 102}, ids);
+        }
+    }
+
+    @Test
+    void boundaryTokenIds_servedTokenizer_resolvesClsAndSep() throws Exception {
+        Path tokenizerPath = Path.of("models/all-MiniLM-L6-v2/tokenizer.json");
+        assumeTrue(Files.exists(tokenizerPath), "model not downloaded");
+        try (HuggingFaceTokenizer tokenizer = HuggingFaceTokenizer.newInstance(tokenizerPath)) {
+            long[] ids = EmbeddingService.boundaryTokenIds(tokenizer.encode(""));
+
+            // [CLS] and [SEP] in the bert-base-uncased vocabulary
+            assertArrayEquals(new long[]{101, 102}, ids);
+        }
+    }
+}
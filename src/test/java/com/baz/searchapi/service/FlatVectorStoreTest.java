@@ -0,0 +1,131 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ChunkSearchRepository.EmbeddingHandler;
+import com.baz.searchapi.repository.ChunksInsertedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.baz.searchapi.service.VectorIndexFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/** What sets the file-backed store apart; the shared behaviour is in {@link VectorIndexContractTest}. */
+@ExtendWith(MockitoExtension.class)
+class FlatVectorStoreTest {
+
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir Path dir;
+
+    private final VectorOps ops = VectorOps.select(false);
+    private final ExecutorService scanExecutor = Executors.newFixedThreadPool(4);
+    private FlatVectorStore store;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (store != null) store.close();
+        scanExecutor.shutdown();
+    }
+
+    @Test
+    void findTopDocuments_matchesBruteForce_acrossRegionsAndScanSlices() {
+        Random random = new Random(7);
+        List<UUID> documents = new ArrayList<>();
+        for (int d = 0; d < 500; d++) documents.add(UUID.randomUUID());
+        // More records than one mapped region and one scan slice
+        int chunks = 20_000;
+        List<UUID> chunkDocuments = new ArrayList<>(chunks);
+        List<float[]> vectors = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            chunkDocuments.add(documents.get(random.nextInt(documents.size())));
+            vectors.add(randomUnit(random));
+        }
+        doAnswer(inv -> {
+            EmbeddingHandler handler = inv.getArgument(0);
+            for (int i = 0; i < chunks; i++) handler.accept(UUID.randomUUID(), chunkDocuments.get(i), vectors.get(i));
+            return null;
+        }).when(chunkRepository).scanEmbeddings(any());
+        store = newStore(true);
+        store.load();
+
+        float[] query = randomUnit(random);
+        Map<UUID, Double> expected = new HashMap<>();
+        for (int i = 0; i < chunks; i++) {
+            expected.merge(chunkDocuments.get(i), (double) ops.dot(query, vectors.get(i)), Math::max);
+        }
+        List<Map.Entry<UUID, Double>> expectedTop = expected.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                .limit(10)
+                .toList();
+
+        List<Object[]> rows = store.findTopDocuments(query, 10);
+
+        assertEquals(chunks, store.size());
+        assertEquals(10, rows.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expectedTop.get(i).getKey(), rows.get(i)[0]);
+            assertEquals(expectedTop.get(i).getValue(), (Double) rows.get(i)[1], 1e-6);
+        }
+    }
+
+    @Test
+    void remove_keepsRecordsInTheFile_butFiltersResults() {
+        store = newStore(true);
+        store.load();
+        UUID docA = UUID.randomUUID();
+        UUID docB = UUID.randomUUID();
+        store.add(List.of(chunk(docA, axis(0)), chunk(docA, axis(1)), chunk(docB, axis(2))));
+
+        store.remove(List.of(docA));
+
+        assertEquals(3, store.size());
+        assertEquals(List.of(docB), store.findTopDocuments(axis(0), 10).stream().map(row -> row[0]).toList());
+    }
+
+    @Test
+    void load_truncatesPreviousFile() throws Exception {
+        Files.write(dir.resolve("vectors.bin"), new byte[FlatVectorStore.RECORD_BYTES * 3]);
+        store = newStore(true);
+
+        store.load();
+
+        assertEquals(0, store.size());
+        assertTrue(store.findTopDocuments(axis(0), 5).isEmpty());
+    }
+
+    @Test
+    void disabled_neverCreatesFile() {
+        store = newStore(false);
+
+        store.load();
+        store.onChunksInserted(new ChunksInsertedEvent(List.of(chunk(UUID.randomUUID(), axis(0)))));
+
+        assertFalse(Files.exists(dir.resolve("vectors.bin")));
+    }
+
+    // --- Helpers ---
+
+    private FlatVectorStore newStore(boolean enabled) {
+        return new FlatVectorStore(chunkRepository, transactionManager, ops, scanExecutor, enabled,
+                dir.resolve("vectors.bin"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.repository.ChunkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.baz.searchapi.service.VectorIndexFixtures.axis;
+import static com.baz.searchapi.service.VectorIndexFixtures.chunk;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** What sets the HNSW index apart; the shared behaviour is in {@link VectorIndexContractTest}. */
+@ExtendWith(MockitoExtension.class)
+class HnswChunkIndexTest {
+
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Test
+    void remove_keepsNodesInTheGraph_butFiltersResults() {
+        UUID docA = UUID.randomUUID();
+        UUID docB = UUID.randomUUID();
+        HnswChunkIndex index = new HnswChunkIndex(chunkRepository, transactionManager, VectorOps.select(false),
+                VectorIndex.Backend.HNSW, 16, 100, 200);
+        index.load();
+        index.add(List.of(chunk(docA, axis(0)), chunk(docA, axis(1)), chunk(docB, axis(2))));
+
+        index.remove(List.of(docA));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(docB), index.findTopDocuments(axis(0), 10).stream().map(row -> row[0]).toList());
+    }
+}
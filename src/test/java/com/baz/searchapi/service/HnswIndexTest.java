@@ -0,0 +1,128 @@
+package com.baz.searchapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIM = 32;
+    private final VectorOps ops = VectorOps.select(false);
+
+    @Test
+    void search_emptyIndex_returnsNothing() {
+        HnswIndex<Integer> index = new HnswIndex<>(DIM, 8, 50, ops);
+        assertTrue(index.search(unit(new Random(1)), 10, 50).isEmpty());
+    }
+
+    @Test
+    void search_findsExactVectorFirst_withItsSimilarity() {
+        Random random = new Random(2);
+        List<float[]> vectors = randomUnitVectors(500, random);
+        HnswIndex<Integer> index = new HnswIndex<>(DIM, 8, 50, ops);
+        for (int i = 0; i < vectors.size(); i++) index.add(vectors.get(i), i);
+
+        List<HnswIndex.Scored<Integer>> hits = index.search(vectors.get(123), 5, 50);
+
+        assertEquals(5, hits.size());
+        assertEquals(123, hits.getFirst().payload());
+        assertEquals(1f, hits.getFirst().similarity(), 1e-5f);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).similarity() >= hits.get(i).similarity(), "best first");
+        }
+    }
+
+    @Test
+    void search_recallAt10_againstExactScan() {
+        Random random = new Random(3);
+        List<float[]> vectors = randomUnitVectors(3000, random);
+        HnswIndex<Integer> index = new HnswIndex<>(DIM, 16, 100, ops);
+        for (int i = 0; i < vectors.size(); i++) index.add(vectors.get(i), i);
+
+        double recall = averageRecallAt10(index, vectors, random);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void add_concurrentInserts_allNodesReachable() throws Exception {
+        Random random = new Random(4);
+        List<float[]> vectors = randomUnitVectors(2000, random);
+        HnswIndex<Integer> index = new HnswIndex<>(DIM, 16, 100, ops);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> inserts = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                inserts.add(pool.submit(() -> {
+                    for (int i = thread; i < vectors.size(); i += 4) index.add(vectors.get(i), i);
+                }));
+            }
+            for (Future<?> f : inserts) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(2000, index.size());
+        long found = IntStream.range(0, vectors.size())
+                .filter(i -> index.search(vectors.get(i), 1, 50).getFirst().payload() == i)
+                .count();
+        assertTrue(found >= 1980, found + " of 2000 vectors found as their own nearest neighbour");
+        assertTrue(averageRecallAt10(index, vectors, random) >= 0.9);
+    }
+
+    @Test
+    void add_wrongDimension_isRejected() {
+        HnswIndex<Integer> index = new HnswIndex<>(DIM, 8, 50, ops);
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[DIM + 1], 0));
+    }
+
+    @Test
+    void scoredHeap_drainsBestFirst_forMinAndMaxHeaps() {
+        float[] scores = {0.3f, 0.9f, 0.1f, 0.5f, 0.7f};
+        for (HnswIndex.ScoredHeap heap : List.of(HnswIndex.ScoredHeap.min(2), HnswIndex.ScoredHeap.max(2))) {
+            for (int i = 0; i < scores.length; i++) heap.push(i, scores[i]);
+            assertArrayEquals(new int[]{1, 4, 3, 0, 2}, heap.nodesBestFirst());
+        }
+    }
+
+    // --- Helpers ---
+
+    private double averageRecallAt10(HnswIndex<Integer> index, List<float[]> vectors, Random random) {
+        int queries = 50;
+        double total = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = unit(random);
+            Set<Integer> exact = new HashSet<>(IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -ops.dot(query, vectors.get(i))))
+                    .limit(10)
+                    .toList());
+            long hits = index.search(query, 10, 100).stream().filter(h -> exact.contains(h.payload())).count();
+            total += hits / 10.0;
+        }
+        return total / queries;
+    }
+
+    private List<float[]> randomUnitVectors(int count, Random random) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) vectors.add(unit(random));
+        return vectors;
+    }
+
+    private float[] unit(Random random) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) v[i] = (float) random.nextGaussian();
+        return ops.normalize(v);
+    }
+}
@@ -0,0 +1,275 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.dto.DocumentRequest;
+import com.baz.searchapi.model.dto.IngestionJobResponse;
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Document;
+import com.baz.searchapi.model.entity.IngestionJob;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.DocumentRepository;
+import com.baz.searchapi.repository.IngestionJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionServiceTest {
+
+    @Mock private DocumentService documentService;
+    @Mock private DocumentRepository documentRepository;
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private IngestionJobRepository ingestionJobRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private TaskScheduler scheduler;
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @Test
+    void submit_storesDocumentAndReturnsPendingJobBeforeProcessing() {
+        UUID clientId = UUID.randomUUID();
+        Document document = stubDocument();
+        IngestionJob job = stubJobFor(document);
+        when(documentService.saveDocument(eq(clientId), any())).thenReturn(document);
+
+        IngestionJobResponse response = newService(queued::add, 10).submit(clientId, request());
+
+        assertEquals(job.getId(), response.id());
+        assertEquals(document.getId(), response.documentId());
+        assertEquals("PENDING", response.status());
+        assertEquals(1, queued.size());
+        verify(documentService, never()).buildChunks(any(Document.class));
+    }
+
+    @Test
+    void process_happyPath_insertsChunksAndCompletesJobUnderItsLease() {
+        Document document = stubDocument();
+        IngestionJob job = stubJobFor(document);
+        when(documentService.saveDocument(any(), any())).thenReturn(document);
+        when(ingestionJobRepository.claim(eq(job.getId()), any(), any())).thenReturn(1);
+        when(ingestionJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+        List<Chunk> chunks = List.of(new Chunk(), new Chunk(), new Chunk());
+        when(documentService.buildChunks(document)).thenReturn(chunks);
+        when(ingestionJobRepository.complete(eq(job.getId()), any(), eq(3), any())).thenReturn(1);
+
+        newService(Runnable::run, 10).submit(UUID.randomUUID(), request());
+
+        verify(chunkRepository).insertAll(chunks);
+        ArgumentCaptor<LocalDateTime> claimedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(ingestionJobRepository).claim(eq(job.getId()), claimedAt.capture(), staleBefore.capture());
+        assertEquals(claimedAt.getValue().minus(LEASE), staleBefore.getValue());
+        verify(ingestionJobRepository).complete(eq(job.getId()), eq(claimedAt.getValue()), eq(3), any());
+    }
+
+    @Test
+    void process_jobClaimedElsewhere_skipsWithoutEmbedding() {
+        UUID jobId = UUID.randomUUID();
+        when(ingestionJobRepository.findResumableIds(any())).thenReturn(List.of(jobId));
+        when(ingestionJobRepository.claim(eq(jobId), any(), any())).thenReturn(0);
+
+        newService(Runnable::run, 10).resumeUnfinishedJobs();
+
+        verify(documentService, never()).buildChunks(any(Document.class));
+        verify(chunkRepository, never()).insertAll(anyList());
+        assertEquals(0.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    @Test
+    void process_leaseLostBeforeCompleting_writesNoChunks() {
+        Document document = stubDocument();
+        IngestionJob job = stubJobFor(document);
+        when(documentService.saveDocument(any(), any())).thenReturn(document);
+        when(ingestionJobRepository.claim(eq(job.getId()), any(), any())).thenReturn(1);
+        when(ingestionJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+        when(documentService.buildChunks(document)).thenReturn(List.of(new Chunk()));
+        when(ingestionJobRepository.complete(eq(job.getId()), any(), eq(1), any())).thenReturn(0);
+
+        newService(Runnable::run, 10).submit(UUID.randomUUID(), request());
+
+        verify(chunkRepository, never()).insertAll(anyList());
+        verify(ingestionJobRepository, never()).fail(any(), any(), any(), any());
+    }
+
+    @Test
+    void process_embeddingFails_marksJobFailedWithoutChunks() {
+        Document document = stubDocument();
+        IngestionJob job = stubJobFor(document);
+        when(documentService.saveDocument(any(), any())).thenReturn(document);
+        when(ingestionJobRepository.claim(eq(job.getId()), any(), any())).thenReturn(1);
+        when(ingestionJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+        when(documentService.buildChunks(document)).thenThrow(new RuntimeException("Embedding inference failed"));
+
+        newService(Runnable::run, 10).submit(UUID.randomUUID(), request());
+
+        verify(chunkRepository, never()).insertAll(anyList());
+        verify(ingestionJobRepository).fail(eq(job.getId()), any(), eq("Embedding inference failed"), any());
+    }
+
+    @Test
+    void submit_queueFull_returns503WithoutStoringDocument() {
+        Document document = stubDocument();
+        stubJobFor(document);
+        when(documentService.saveDocument(any(), any())).thenReturn(document);
+        IngestionService service = newService(queued::add, 1);
+        service.submit(UUID.randomUUID(), request());
+
+        var ex = assertThrows(ResponseStatusException.class,
+                () -> service.submit(UUID.randomUUID(), request()));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        verify(documentService).saveDocument(any(), any());
+    }
+
+    @Test
+    void submit_rejectedSubmission_doesNotHoldQueueSlot() {
+        when(documentService.saveDocument(any(), any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A document with this title already exists for this client"));
+        IngestionService service = newService(queued::add, 1);
+
+        assertThrows(ResponseStatusException.class, () -> service.submit(UUID.randomUUID(), request()));
+        var ex = assertThrows(ResponseStatusException.class, () -> service.submit(UUID.randomUUID(), request()));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals(0.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    @Test
+    void getJob_notFound_throws404() {
+        UUID jobId = UUID.randomUUID();
+        when(ingestionJobRepository.findById(jobId)).thenReturn(Optional.empty());
+
+        var ex = assertThrows(ResponseStatusException.class, () -> newService(queued::add, 10).getJob(jobId));
+
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        assertEquals("Ingestion job not found", ex.getReason());
+    }
+
+    @Test
+    void resumeUnfinishedJobs_requeuesPendingAndStaleRunningJobs() {
+        when(ingestionJobRepository.findResumableIds(any()))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
+
+        newService(queued::add, 10).resumeUnfinishedJobs();
+
+        assertEquals(2, queued.size());
+        assertEquals(2.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    @Test
+    void resumeUnfinishedJobs_feedsBacklogWithinQueueCapacity() {
+        when(ingestionJobRepository.findResumableIds(any()))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        when(ingestionJobRepository.claim(any(), any(), any())).thenReturn(0);
+
+        newService(queued::add, 2).resumeUnfinishedJobs();
+
+        assertEquals(2, queued.size());
+        assertEquals(2.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+
+        // A finished job frees its slot for the next one in the backlog
+        queued.removeFirst().run();
+
+        assertEquals(2, queued.size());
+        assertEquals(2.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    @Test
+    void sweepStaleJobs_restartInsideLease_requeuesRunningJobOnceLeaseLapses() {
+        UUID inFlight = UUID.randomUUID();
+        // Right after the restart the crashed worker's lease still holds
+        when(ingestionJobRepository.findResumableIds(any())).thenReturn(List.of());
+        IngestionService service = newService(queued::add, 10);
+        service.resumeUnfinishedJobs();
+        assertEquals(0, queued.size());
+
+        ArgumentCaptor<Runnable> sweep = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleWithFixedDelay(sweep.capture(), any(Instant.class), eq(LEASE));
+        when(ingestionJobRepository.findStaleIds(any())).thenReturn(List.of(inFlight));
+        when(ingestionJobRepository.claim(eq(inFlight), any(), any())).thenReturn(1);
+        IngestionJob job = new IngestionJob(UUID.randomUUID());
+        job.setId(inFlight);
+        when(ingestionJobRepository.findById(inFlight)).thenReturn(Optional.of(job));
+        Document document = stubDocument();
+        when(documentRepository.findById(job.getDocumentId())).thenReturn(Optional.of(document));
+        when(documentService.buildChunks(document)).thenReturn(List.of(new Chunk()));
+        when(ingestionJobRepository.complete(eq(inFlight), any(), eq(1), any())).thenReturn(1);
+
+        sweep.getValue().run();
+        assertEquals(1, queued.size());
+        queued.removeFirst().run();
+
+        verify(chunkRepository).insertAll(anyList());
+        assertEquals(0.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    @Test
+    void sweepStaleJobs_skipsJobsAlreadyInBacklog() {
+        UUID waiting = UUID.randomUUID();
+        when(ingestionJobRepository.findResumableIds(any())).thenReturn(List.of(UUID.randomUUID(), waiting));
+        IngestionService service = newService(queued::add, 1);
+        service.resumeUnfinishedJobs();
+        when(ingestionJobRepository.findStaleIds(any())).thenReturn(List.of(waiting));
+
+        service.sweepStaleJobs();
+
+        assertEquals(1, queued.size());
+        assertEquals(1.0, meterRegistry.get("ingestion.jobs.pending").gauge().value());
+    }
+
+    // --- Helpers ---
+
+    private IngestionService newService(TaskExecutor executor, int maxPending) {
+        return new IngestionService(documentService, documentRepository, chunkRepository, ingestionJobRepository,
+                transactionManager, executor, scheduler, meterRegistry, maxPending, LEASE);
+    }
+
+    private static DocumentRequest request() {
+        return new DocumentRequest("Utility Bill", "This is a utility bill.");
+    }
+
+    private static Document stubDocument() {
+        Document document = new Document();
+        document.setId(UUID.randomUUID());
+        document.setTitle("Utility Bill");
+        document.setContent("This is a utility bill.");
+        return document;
+    }
+
+    private IngestionJob stubJobFor(Document document) {
+        IngestionJob job = new IngestionJob(document.getId());
+        job.setId(UUID.randomUUID());
+        when(ingestionJobRepository.save(any(IngestionJob.class))).thenReturn(job);
+        return job;
+    }
+}
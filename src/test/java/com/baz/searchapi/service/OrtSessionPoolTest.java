@@ -0,0 +1,37 @@
+package com.baz.searchapi.service;
+
+import ai.onnxruntime.OrtSession.SessionOptions.ExecutionMode;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrtSessionPoolTest {
+
+    @Test
+    void intraOpThreads_auto_splitsCoresAcrossSessions() {
+        assertEquals(8, settings(4, 0).intraOpThreadsPerSession(32));
+        assertEquals(32, settings(1, 0).intraOpThreadsPerSession(32));
+    }
+
+    @Test
+    void intraOpThreads_auto_neverDropsBelowOne() {
+        assertEquals(1, settings(8, 0).intraOpThreadsPerSession(4));
+    }
+
+    @Test
+    void intraOpThreads_explicit_isUsedAsIs() {
+        assertEquals(6, settings(4, 6).intraOpThreadsPerSession(32));
+    }
+
+    @Test
+    void poolSize_belowOne_isRejected() {
+        var ex = assertThrows(IllegalArgumentException.class, () -> settings(0, 0));
+        assertTrue(ex.getMessage().contains("embedding.session.pool-size"));
+    }
+
+    private static OrtSessionPool.Settings settings(int poolSize, int intraOpThreads) {
+        return new OrtSessionPool.Settings(poolSize, intraOpThreads, 1, OptLevel.ALL_OPT,
+                ExecutionMode.SEQUENTIAL, true, true);
+    }
+}
@@ -0,0 +1,62 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.repository.ChunkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PgVectorIndexTest {
+
+    @Mock private ChunkRepository chunkRepository;
+
+    @Test
+    void findTopDocuments_noQuantization_queriesHalfvecIndex() {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{UUID.randomUUID(), 0.9});
+        when(chunkRepository.findTopDocumentsByEmbedding(any(), eq(10), anyInt(), anyInt())).thenReturn(rows);
+        PgVectorIndex index = new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.NONE, 4);
+
+        assertSame(rows, index.findTopDocuments(new float[384], 10));
+        verify(chunkRepository, never()).findTopDocumentsByBinaryEmbedding(any(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void findTopDocuments_binaryQuantization_passesOversampling() {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{UUID.randomUUID(), 0.9});
+        when(chunkRepository.findTopDocumentsByBinaryEmbedding(any(), eq(10), anyInt(), anyInt(), eq(8))).thenReturn(rows);
+        PgVectorIndex index = new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.BINARY, 8);
+
+        assertSame(rows, index.findTopDocuments(new float[384], 10));
+        verify(chunkRepository, never()).findTopDocumentsByEmbedding(any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void constructor_rejectsOversamplingBelowOne() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.BINARY, 0));
+    }
+
+    @Test
+    void findTopDocuments_effortSetsEfSearchAndCandidateDepth() {
+        PgVectorIndex index = new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.NONE, 4);
+
+        index.findTopDocuments(new float[384], 10, SearchEffort.FAST);
+        index.findTopDocuments(new float[384], 10, SearchEffort.THOROUGH);
+
+        // FAST's 40 candidates still cover limit × 4 chunks; ef_search follows the candidate count
+        verify(chunkRepository).findTopDocumentsByEmbedding(any(), eq(10), eq(40), eq(40));
+        verify(chunkRepository).findTopDocumentsByEmbedding(any(), eq(10), eq(1000), eq(1000));
+    }
+}
@@ -0,0 +1,182 @@
+package com.baz.searchapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryEmbeddingBatcherTest {
+
+    @Mock private EmbeddingService embeddingService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QueryEmbeddingBatcher batcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (batcher != null) batcher.stop();
+    }
+
+    @Test
+    void embed_singleQuery_returnsEmbeddingForThatQuery() {
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> echoLengths(inv.getArgument(0)));
+        batcher = startBatcher(0, 32);
+
+        assertEquals(5f, batcher.embed("hello")[0]);
+    }
+
+    @Test
+    void submit_queriesWithinWindow_shareOneBatchAndResolveToOwnResults() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> {
+            List<String> texts = inv.getArgument(0);
+            synchronized (batchSizes) { batchSizes.add(texts.size()); }
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return echoLengths(texts);
+        });
+        batcher = startBatcher(0, 32);
+
+        // The first query occupies the dispatcher; the next three queue up behind it.
+        CompletableFuture<float[]> blocker = batcher.submit("x");
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<float[]> a = batcher.submit("a");
+        CompletableFuture<float[]> bb = batcher.submit("bb");
+        CompletableFuture<float[]> ccc = batcher.submit("ccc");
+        releaseFirstBatch.countDown();
+
+        assertEquals(1f, blocker.get(5, TimeUnit.SECONDS)[0]);
+        assertEquals(1f, a.get(5, TimeUnit.SECONDS)[0]);
+        assertEquals(2f, bb.get(5, TimeUnit.SECONDS)[0]);
+        assertEquals(3f, ccc.get(5, TimeUnit.SECONDS)[0]);
+        assertEquals(List.of(1, 3), batchSizes);
+    }
+
+    @Test
+    void submit_moreQueriesThanMaxBatchSize_splitsIntoSeveralBatches() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> {
+            List<String> texts = inv.getArgument(0);
+            synchronized (batchSizes) { batchSizes.add(texts.size()); }
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return echoLengths(texts);
+        });
+        batcher = startBatcher(0, 2);
+
+        CompletableFuture<float[]> blocker = batcher.submit("x");
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<float[]>> queued = List.of(
+                batcher.submit("a"), batcher.submit("b"), batcher.submit("c"));
+        releaseFirstBatch.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<float[]> f : queued) f.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2, 1), batchSizes);
+    }
+
+    @Test
+    void embed_inferenceFails_exceptionPropagatesToCaller() {
+        when(embeddingService.embedBatch(anyList())).thenThrow(new RuntimeException("Embedding inference failed"));
+        batcher = startBatcher(0, 32);
+
+        var ex = assertThrows(RuntimeException.class, () -> batcher.embed("hello"));
+        assertEquals("Embedding inference failed", ex.getMessage());
+    }
+
+    @Test
+    void embed_recordsBatchSizeAndQueueWaitMetrics() {
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> echoLengths(inv.getArgument(0)));
+        batcher = startBatcher(0, 32);
+
+        batcher.embed("hello");
+
+        assertEquals(1, meterRegistry.get("embedding.query.batch.size").summary().count());
+        assertEquals(1, meterRegistry.get("embedding.query.queue.wait").timer().count());
+    }
+
+    @Test
+    void submit_afterStop_failsImmediately() throws InterruptedException {
+        batcher = startBatcher(0, 32);
+        batcher.stop();
+
+        assertTrue(batcher.submit("hello").isCompletedExceptionally());
+    }
+
+    @Test
+    void stop_failsQueriesStillQueued() throws Exception {
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> {
+            batchStarted.countDown();
+            new CountDownLatch(1).await();   // until stop() interrupts the dispatcher
+            return echoLengths(inv.getArgument(0));
+        });
+        batcher = startBatcher(0, 32);
+        CompletableFuture<float[]> inFlight = batcher.submit("x");
+        assertTrue(batchStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<float[]> queued = batcher.submit("a");
+
+        batcher.stop();
+
+        assertTrue(inFlight.isCompletedExceptionally());
+        assertTrue(queued.isCompletedExceptionally());
+    }
+
+    @Test
+    void submit_racingStop_everyFutureCompletes() throws Exception {
+        when(embeddingService.embedBatch(anyList())).thenAnswer(inv -> echoLengths(inv.getArgument(0)));
+        batcher = startBatcher(0, 32);
+        List<CompletableFuture<float[]>> futures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            submitters.add(Thread.ofPlatform().start(() -> {
+                CompletableFuture<float[]> future;
+                do {
+                    future = batcher.submit("q");
+                    futures.add(future);
+                } while (!future.isCompletedExceptionally());
+            }));
+        }
+
+        Thread.sleep(20);
+        batcher.stop();
+        for (Thread submitter : submitters) {
+            submitter.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        for (CompletableFuture<float[]> future : List.copyOf(futures)) {
+            assertTrue(future.isDone(), "a query submitted during shutdown was left pending");
+        }
+    }
+
+    // --- Helpers ---
+
+    private QueryEmbeddingBatcher startBatcher(long windowMs, int maxBatchSize) {
+        QueryEmbeddingBatcher b = new QueryEmbeddingBatcher(embeddingService, meterRegistry, windowMs, maxBatchSize);
+        b.start();
+        return b;
+    }
+
+    /** Fake embeddings whose first component is the input length, so results can be matched to callers. */
+    private static List<float[]> echoLengths(List<String> texts) {
+        return texts.stream().map(t -> new float[]{t.length()}).toList();
+    }
+}
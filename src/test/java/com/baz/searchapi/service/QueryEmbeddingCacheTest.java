@@ -0,0 +1,85 @@
+package com.baz.searchapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryEmbeddingCacheTest {
+
+    @Mock private QueryEmbeddingBatcher queryEmbeddingBatcher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void embed_repeatedQuery_runsInferenceOnce() {
+        when(queryEmbeddingBatcher.submit(anyString()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(new float[]{1f}));
+        QueryEmbeddingCache cache = newCache(100);
+
+        float[] first = cache.embed("address proof");
+        float[] second = cache.embed("address proof");
+
+        assertSame(first, second);
+        verify(queryEmbeddingBatcher, times(1)).submit("address proof");
+    }
+
+    @Test
+    void embed_caseAndWhitespaceVariants_shareOneEntry() {
+        when(queryEmbeddingBatcher.submit(anyString()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(new float[]{1f}));
+        QueryEmbeddingCache cache = newCache(100);
+
+        cache.embed("Portfolio  Statement");
+        cache.embed("  portfolio statement ");
+        cache.embed("PORTFOLIO\tSTATEMENT");
+
+        verify(queryEmbeddingBatcher, times(1)).submit("portfolio statement");
+    }
+
+    @Test
+    void embed_failedInference_isNotCached() {
+        when(queryEmbeddingBatcher.submit(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Embedding inference failed")))
+                .thenReturn(CompletableFuture.completedFuture(new float[]{1f}));
+        QueryEmbeddingCache cache = newCache(100);
+
+        assertThrows(RuntimeException.class, () -> cache.embed("kyc"));
+        assertArrayEquals(new float[]{1f}, cache.embed("kyc"));
+        verify(queryEmbeddingBatcher, times(2)).submit("kyc");
+    }
+
+    @Test
+    void embed_publishesHitAndMissCounters() {
+        when(queryEmbeddingBatcher.submit(anyString()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(new float[]{1f}));
+        QueryEmbeddingCache cache = newCache(100);
+
+        cache.embed("kyc");
+        cache.embed("kyc");
+        cache.embed("kyc");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void normalise_collapsesWhitespaceAndLowerCases() {
+        assertEquals("address proof", QueryEmbeddingCache.normalise("  Address \n  PROOF "));
+    }
+
+    private QueryEmbeddingCache newCache(long maxSize) {
+        return new QueryEmbeddingCache(queryEmbeddingBatcher, meterRegistry, maxSize, Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,53 @@
+package com.baz.searchapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchEffortTest {
+
+    @Test
+    void of_namedLevel_returnsPreset() {
+        assertEquals(SearchEffort.FAST, SearchEffort.of("fast", null, null));
+        assertEquals(SearchEffort.THOROUGH, SearchEffort.of("THOROUGH", null, null));
+        assertTrue(SearchEffort.of("adaptive", null, null).adaptive());
+    }
+
+    @Test
+    void of_explicitValues_overridePreset() {
+        SearchEffort effort = SearchEffort.of("balanced", 64, 500);
+
+        assertEquals(new SearchEffort(64, 500, false), effort);
+    }
+
+    @Test
+    void of_invalidInput_throws() {
+        assertThrows(IllegalArgumentException.class, () -> SearchEffort.of("maximum", null, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchEffort.of("fast", 0, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchEffort.of("fast", 1001, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchEffort.of("fast", null, 0));
+    }
+
+    @Test
+    void chunkCandidates_coverSeveralChunksPerDocument() {
+        assertEquals(40, SearchEffort.FAST.chunkCandidates(5));
+        assertEquals(400, SearchEffort.FAST.chunkCandidates(100));
+        // ef_search follows the candidate count, up to pgvector's cap
+        assertEquals(400, SearchEffort.FAST.efSearch(100));
+        assertEquals(1000, SearchEffort.FAST.efSearch(1000));
+    }
+
+    @Test
+    void deeper_growsAdaptiveEffortUntilEfSearchCap() {
+        SearchEffort round = SearchEffort.ADAPTIVE;
+        int rounds = 1;
+        while ((round = round.deeper()) != null) {
+            rounds++;
+            assertTrue(round.efSearch() <= SearchEffort.MAX_EF_SEARCH);
+            assertTrue(round.candidates() <= SearchEffort.MAX_CANDIDATES);
+        }
+
+        assertEquals(4, rounds);
+        assertNull(SearchEffort.BALANCED.deeper());
+    }
+}
@@ -6,17 +6,24 @@ import com.baz.searchapi.model.dto.SearchResultItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,18 +32,19 @@ class SearchServiceTest {
     @Mock private ClientService clientService;
     @Mock private DocumentService documentService;
 
-    @InjectMocks
     private SearchService searchService;
 
     @BeforeEach
     void setUp() {
-        lenient().when(clientService.searchClients(anyString())).thenReturn(List.of());
-        lenient().when(documentService.searchDocuments(anyString())).thenReturn(List.of());
+        searchService = new SearchService(clientService, documentService,
+                new SearchFanOut(Executors.newVirtualThreadPerTaskExecutor(), Duration.ofMillis(500), Duration.ofSeconds(1)));
+        lenient().when(clientService.searchClients(anyString(), anyInt())).thenReturn(List.of());
+        lenient().when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenReturn(List.of());
     }
 
     @Test
     void search_noMatches_returnsEmptyList() {
-        assertTrue(searchService.search("xyzunknown").isEmpty());
+        assertTrue(searchService.search("xyzunknown", 20, 0, SearchEffort.BALANCED, ResultContent.FULL).isEmpty());
     }
 
     @Test
@@ -46,10 +54,10 @@ class SearchServiceTest {
         var docItem = SearchResultItem.fromDocument(
                 new DocumentResponse(UUID.randomUUID(), UUID.randomUUID(), "Tax Return", "Content", LocalDateTime.now()), 0.75);
 
-        when(clientService.searchClients(anyString())).thenReturn(List.of(clientItem));
-        when(documentService.searchDocuments(anyString())).thenReturn(List.of(docItem));
+        when(clientService.searchClients(anyString(), anyInt())).thenReturn(List.of(clientItem));
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenReturn(List.of(docItem));
 
-        List<SearchResultItem> results = searchService.search("tax advisor");
+        List<SearchResultItem> results = searchService.search("tax advisor", 20, 0, SearchEffort.BALANCED, ResultContent.FULL);
 
         assertEquals(2, results.size());
         assertEquals("client", results.get(0).type());
@@ -61,9 +69,9 @@ class SearchServiceTest {
         var clientItem = SearchResultItem.fromClient(
                 new ClientResponse(UUID.randomUUID(), "Jane", "Smith", "jane@example.com", "Planner", null));
 
-        when(clientService.searchClients(anyString())).thenReturn(List.of(clientItem));
+        when(clientService.searchClients(anyString(), anyInt())).thenReturn(List.of(clientItem));
 
-        List<SearchResultItem> results = searchService.search("retirement");
+        List<SearchResultItem> results = searchService.search("retirement", 20, 0, SearchEffort.BALANCED, ResultContent.FULL);
 
         assertEquals(1, results.size());
         assertEquals("client", results.getFirst().type());
@@ -74,11 +82,118 @@ class SearchServiceTest {
         var docItem = SearchResultItem.fromDocument(
                 new DocumentResponse(UUID.randomUUID(), UUID.randomUUID(), "Passport Copy", "Content", LocalDateTime.now()), 0.75);
 
-        when(documentService.searchDocuments(anyString())).thenReturn(List.of(docItem));
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenReturn(List.of(docItem));
 
-        List<SearchResultItem> results = searchService.search("identity");
+        List<SearchResultItem> results = searchService.search("identity", 20, 0, SearchEffort.BALANCED, ResultContent.FULL);
 
         assertEquals(1, results.size());
         assertEquals("document", results.getFirst().type());
     }
+
+    @Test
+    void search_page_spansClientsThenDocuments() {
+        var clients = List.<SearchResultItem>of(client("A"), client("B"), client("C"));
+        var docs = List.<SearchResultItem>of(document("D1"), document("D2"), document("D3"));
+        when(clientService.searchClients(anyString(), anyInt())).thenReturn(clients);
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenReturn(docs);
+
+        List<SearchResultItem> page = searchService.search("tax", 2, 2, SearchEffort.BALANCED, ResultContent.FULL);
+
+        assertEquals(List.of(clients.get(2).id(), docs.get(0).id()), page.stream().map(SearchResultItem::id).toList());
+    }
+
+    @Test
+    void search_legsAskedForOffsetPlusLimit() {
+        searchService.search("tax", 10, 30, SearchEffort.BALANCED, ResultContent.FULL);
+
+        verify(clientService).searchClients("tax", 40);
+        verify(documentService).searchDocuments("tax", 40, SearchEffort.BALANCED, ResultContent.FULL);
+    }
+
+    @Test
+    void search_offsetBeyondResults_returnsEmptyPage() {
+        when(clientService.searchClients(anyString(), anyInt())).thenReturn(List.of(client("A")));
+
+        assertTrue(searchService.search("tax", 20, 5, SearchEffort.BALANCED, ResultContent.FULL).isEmpty());
+    }
+
+    @Test
+    void search_legsRunConcurrently() {
+        // Each leg waits for the other to start; run sequentially this would time out both legs.
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        var clientItem = SearchResultItem.fromClient(
+                new ClientResponse(UUID.randomUUID(), "Jane", "Smith", "jane@example.com", "Planner", null));
+        var docItem = SearchResultItem.fromDocument(
+                new DocumentResponse(UUID.randomUUID(), UUID.randomUUID(), "Tax Return", "Content", LocalDateTime.now()), 0.75);
+
+        when(clientService.searchClients(anyString(), anyInt())).thenAnswer(inv -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return List.of(clientItem);
+        });
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenAnswer(inv -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return List.of(docItem);
+        });
+
+        assertEquals(2, searchService.search("tax", 20, 0, SearchEffort.BALANCED, ResultContent.FULL).size());
+    }
+
+    @Test
+    void search_clientLegFails_documentsStillReturned() {
+        var docItem = SearchResultItem.fromDocument(
+                new DocumentResponse(UUID.randomUUID(), UUID.randomUUID(), "Tax Return", "Content", LocalDateTime.now()), 0.75);
+
+        when(clientService.searchClients(anyString(), anyInt())).thenThrow(new RuntimeException("connection reset"));
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenReturn(List.of(docItem));
+
+        List<SearchResultItem> results = searchService.search("tax", 20, 0, SearchEffort.BALANCED, ResultContent.FULL);
+
+        assertEquals(1, results.size());
+        assertEquals("document", results.getFirst().type());
+    }
+
+    @Test
+    void search_documentLegTimesOut_clientsStillReturned() {
+        var clientItem = SearchResultItem.fromClient(
+                new ClientResponse(UUID.randomUUID(), "Jane", "Smith", "jane@example.com", "Planner", null));
+
+        when(clientService.searchClients(anyString(), anyInt())).thenReturn(List.of(clientItem));
+        when(documentService.searchDocuments(anyString(), anyInt(), any(), any())).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        List<SearchResultItem> results = searchService.search("jane", 20, 0, SearchEffort.BALANCED, ResultContent.FULL);
+
+        assertEquals(1, results.size());
+        assertEquals("client", results.getFirst().type());
+    }
+
+    // --- Helpers ---
+
+    private static SearchResultItem client(String firstName) {
+        return SearchResultItem.fromClient(new ClientResponse(UUID.randomUUID(), firstName, "Doe",
+                firstName.toLowerCase() + "@example.com", null, null), 0.5);
+    }
+
+    private static SearchResultItem document(String title) {
+        return SearchResultItem.fromDocument(new DocumentResponse(UUID.randomUUID(), UUID.randomUUID(), title,
+                "Content", LocalDateTime.now()), 0.5);
+    }
+
+    // --- Client-scoped search ---
+
+    @Test
+    void searchClient_pagesClientDocumentsOnly() {
+        UUID clientId = UUID.randomUUID();
+        var docs = List.<SearchResultItem>of(document("D1"), document("D2"), document("D3"));
+        when(documentService.searchClientDocuments(clientId, "tax", 3, SearchEffort.BALANCED, ResultContent.FULL)).thenReturn(docs);
+
+        List<SearchResultItem> page = searchService.searchClient(clientId, "tax", 2, 1, SearchEffort.BALANCED, ResultContent.FULL);
+
+        assertEquals(List.of(docs.get(1).id(), docs.get(2).id()), page.stream().map(SearchResultItem::id).toList());
+        verify(clientService, never()).searchClients(anyString(), anyInt());
+    }
 }
@@ -0,0 +1,94 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.repository.ChunkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SemanticSearchRouterTest {
+
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private HnswChunkIndex hnswChunkIndex;
+    @Mock private FlatVectorStore flatVectorStore;
+    @Mock private BruteForceVectorIndex bruteForceIndex;
+
+    private SemanticSearchRouter router;
+
+    @BeforeEach
+    void setUp() {
+        PgVectorIndex pgVectorIndex = new PgVectorIndex(chunkRepository, PgVectorIndex.Quantization.NONE, 4);
+        router = new SemanticSearchRouter(pgVectorIndex, hnswChunkIndex, bruteForceIndex, flatVectorStore, 1000);
+    }
+
+    @Test
+    void route_smallLoadedFlatStore_usesExactScan() {
+        when(flatVectorStore.isEnabled()).thenReturn(true);
+        when(flatVectorStore.size()).thenReturn(1000);
+        List<Object[]> rows = List.<Object[]>of(new Object[]{UUID.randomUUID(), 0.9});
+        when(flatVectorStore.findTopDocuments(any(float[].class), anyInt())).thenReturn(rows);
+
+        assertSame(rows, router.findTopDocuments(new float[384], 10));
+        verify(chunkRepository, never()).findTopDocumentsByEmbedding(any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void route_flatStoreOverThreshold_fallsThroughToHnsw() {
+        when(flatVectorStore.isEnabled()).thenReturn(true);
+        when(flatVectorStore.size()).thenReturn(1001);
+        when(hnswChunkIndex.isEnabled()).thenReturn(true);
+
+        assertEquals(SemanticSearchRouter.Route.HNSW, router.route());
+    }
+
+    @Test
+    void route_bruteForceLoaded_answersBatchFromIt() {
+        when(bruteForceIndex.isEnabled()).thenReturn(true);
+        List<List<Object[]>> rows = List.of(List.of(), List.of());
+        when(bruteForceIndex.findTopDocuments(anyList(), anyInt())).thenReturn(rows);
+
+        assertSame(rows, router.findTopDocuments(List.of(new float[384], new float[384]), 10));
+        verify(chunkRepository, never()).findTopDocumentsByEmbedding(any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void route_nothingLoaded_usesPgvector() {
+        assertEquals(SemanticSearchRouter.Route.PGVECTOR, router.route());
+        assertInstanceOf(PgVectorIndex.class, router.index());
+    }
+
+    @Test
+    void adaptiveEffort_deepensUntilEnoughDocuments() {
+        when(chunkRepository.findTopDocumentsByEmbedding(any(), eq(2), anyInt(), anyInt()))
+                .thenReturn(List.<Object[]>of(new Object[]{UUID.randomUUID(), 0.9}))
+                .thenReturn(List.of(new Object[]{UUID.randomUUID(), 0.9}, new Object[]{UUID.randomUUID(), 0.8}));
+
+        assertEquals(2, router.findTopDocuments(new float[384], 2, SearchEffort.ADAPTIVE).size());
+
+        verify(chunkRepository).findTopDocumentsByEmbedding(any(), eq(2), eq(40), eq(40));
+        verify(chunkRepository).findTopDocumentsByEmbedding(any(), eq(2), eq(160), eq(160));
+        verify(chunkRepository, times(2)).findTopDocumentsByEmbedding(any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void fixedEffort_neverDeepens() {
+        router.findTopDocuments(new float[384], 10, SearchEffort.FAST);
+
+        verify(chunkRepository, times(1)).findTopDocumentsByEmbedding(any(), anyInt(), anyInt(), anyInt());
+    }
+}
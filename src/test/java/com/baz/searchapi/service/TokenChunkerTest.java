@@ -0,0 +1,92 @@
+package com.baz.searchapi.service;
+
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenChunkerTest {
+
+    @Test
+    void windows_fitsInOneWindow_singleRange() {
+        assertRanges(TokenChunker.windows(100, 254, 32), new int[]{0, 100});
+    }
+
+    @Test
+    void windows_noTokens_singleEmptyRange() {
+        assertRanges(TokenChunker.windows(0, 254, 32), new int[]{0, 0});
+    }
+
+    @Test
+    void windows_consecutiveRangesShareOverlapTokens() {
+        assertRanges(TokenChunker.windows(20, 8, 2),
+                new int[]{0, 8}, new int[]{6, 14}, new int[]{12, 20});
+    }
+
+    @Test
+    void windows_shortTail_lastRangeShiftedBackToFullSize() {
+        assertRanges(TokenChunker.windows(10, 8, 2),
+                new int[]{0, 8}, new int[]{2, 10});
+    }
+
+    @Test
+    void constructor_overlapNotSmallerThanContent_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenChunker(null, TokenChunker.Strategy.TOKEN, 10, 8));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenChunker(null, TokenChunker.Strategy.TOKEN, 2, 0));
+    }
+
+    @Test
+    void constructor_windowBeyondModelPositions_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenChunker(null, TokenChunker.Strategy.TOKEN, EmbeddingService.MAX_SEQUENCE_LENGTH + 1, 32));
+        assertDoesNotThrow(() -> new TokenChunker(null, TokenChunker.Strategy.TOKEN, EmbeddingService.MAX_SEQUENCE_LENGTH, 32));
+    }
+
+    @Test
+    void isEnabled_onlyForTokenStrategy() {
+        assertFalse(new TokenChunker(null, TokenChunker.Strategy.WORD, 256, 32).isEnabled());
+        assertTrue(new TokenChunker(null, TokenChunker.Strategy.TOKEN, 256, 32).isEnabled());
+    }
+
+    @Test
+    void chunk_textWithEmoji_cutsAtUtf16Offsets() throws Exception {
+        // The emoji is one code point but two UTF-16 chars, so every later span shifts by one
+        String text = "ab \uD83D\uDE00 hello world";
+        Path tokenizerPath = Path.of(TokenChunkerTest.class.getResource("/embedding/padded-tokenizer.json").toURI());
+        try (HuggingFaceTokenizer tokenizer = HuggingFaceTokenizer.builder()
+                .optTokenizerPath(tokenizerPath)
+                .optAddSpecialTokens(false)
+                .optTruncation(false)
+                .optPadding(false)
+                .build()) {
+            EmbeddingService embeddingService = mock(EmbeddingService.class);
+            when(embeddingService.tokenizeForChunking(anyString())).thenAnswer(inv ->
+                    EmbeddingService.toTokenizedText(inv.getArgument(0), tokenizer.encode(text, false, false)));
+
+            // Two content tokens per window: [ab, 😀] and [hello, world]
+            List<TokenChunker.TokenizedChunk> chunks =
+                    new TokenChunker(embeddingService, TokenChunker.Strategy.TOKEN, 4, 0).chunk(text);
+
+            assertEquals(2, chunks.size());
+            assertEquals("ab \uD83D\uDE00", chunks.get(0).text());
+            assertEquals("hello world", chunks.get(1).text());
+            assertEquals(6, chunks.get(1).charStart());
+            assertEquals(17, chunks.get(1).charEnd());
+        }
+    }
+
+    private static void assertRanges(List<int[]> actual, int[]... expected) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual.get(i), "range " + i);
+        }
+    }
+}
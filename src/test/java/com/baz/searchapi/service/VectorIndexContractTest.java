@@ -0,0 +1,200 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.repository.ChunkRepository;
+import com.baz.searchapi.repository.ChunkSearchRepository.EmbeddingHandler;
+import com.baz.searchapi.repository.ChunksInsertedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import static com.baz.searchapi.service.VectorIndexFixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Behaviour every in-process {@link VectorIndex} shares: loading from the table at startup,
+ * picking up inserts, and answering queries with the same rows. Each class's own test covers
+ * only what differs between them.
+ */
+@ExtendWith(MockitoExtension.class)
+class VectorIndexContractTest {
+
+    enum Implementation { HNSW, BRUTE_FORCE, FLAT }
+
+    @Mock private ChunkRepository chunkRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @TempDir Path dir;
+
+    private final VectorOps ops = VectorOps.select(false);
+    private final ExecutorService scanExecutor = Executors.newFixedThreadPool(2);
+    private FlatVectorStore flatStore;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (flatStore != null) flatStore.close();
+        scanExecutor.shutdown();
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void load_storesEveryChunk_thenEnablesSearch(Implementation implementation) {
+        doAnswer(inv -> {
+            EmbeddingHandler handler = inv.getArgument(0);
+            handler.accept(UUID.randomUUID(), UUID.randomUUID(), axis(0));
+            handler.accept(UUID.randomUUID(), UUID.randomUUID(), axis(1));
+            return null;
+        }).when(chunkRepository).scanEmbeddings(any());
+        Subject subject = subject(implementation, true);
+
+        assertFalse(subject.index().isEnabled());
+        subject.load().run();
+
+        assertTrue(subject.index().isEnabled());
+        assertEquals(2, subject.size().getAsInt());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void onChunksInserted_sameChunkTwice_storedOnce(Implementation implementation) {
+        Subject subject = loaded(implementation);
+        Chunk chunk = chunk(UUID.randomUUID(), axis(2));
+
+        subject.onInserted().accept(new ChunksInsertedEvent(List.of(chunk)));
+        subject.onInserted().accept(new ChunksInsertedEvent(List.of(chunk)));
+
+        assertEquals(1, subject.size().getAsInt());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void findTopDocuments_scoresEachDocumentByItsBestChunk(Implementation implementation) {
+        UUID docA = UUID.randomUUID();
+        UUID docB = UUID.randomUUID();
+        VectorIndex index = loaded(implementation).index();
+        index.add(List.of(chunk(docA, axis(0)), chunk(docA, mix(0, 1)), chunk(docB, axis(1))));
+
+        List<Object[]> rows = index.findTopDocuments(axis(0), 10);
+
+        assertEquals(2, rows.size());
+        assertEquals(docA, rows.get(0)[0]);
+        assertEquals(1.0, (Double) rows.get(0)[1], 1e-6);
+        assertEquals(docB, rows.get(1)[0]);
+        assertEquals(0.0, (Double) rows.get(1)[1], 1e-6);
+        assertEquals(1, index.findTopDocuments(axis(0), 1).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void findTopDocuments_tiesBrokenByDocumentId(Implementation implementation) {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        VectorIndex index = loaded(implementation).index();
+        index.add(List.of(chunk(second, axis(0)), chunk(first, axis(0))));
+
+        List<Object[]> rows = index.findTopDocuments(axis(0), 10);
+
+        assertEquals(List.of(first, second), rows.stream().map(row -> row[0]).toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void findTopDocuments_batch_matchesOneQueryAtATime(Implementation implementation) {
+        Random random = new Random(7);
+        VectorIndex index = loaded(implementation).index();
+        for (int i = 0; i < 200; i++) {
+            index.add(List.of(chunk(UUID.randomUUID(), randomUnit(random))));
+        }
+        List<float[]> queries = List.of(randomUnit(random), randomUnit(random), randomUnit(random));
+
+        List<List<Object[]>> batch = index.findTopDocuments(queries, 5);
+
+        assertEquals(3, batch.size());
+        for (int q = 0; q < queries.size(); q++) {
+            List<Object[]> single = index.findTopDocuments(queries.get(q), 5);
+            assertEquals(single.size(), batch.get(q).size());
+            for (int r = 0; r < single.size(); r++) {
+                assertArrayEquals(single.get(r), batch.get(q).get(r));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void remove_dropsEveryChunkOfTheDocumentFromResults(Implementation implementation) {
+        UUID docA = UUID.randomUUID();
+        UUID docB = UUID.randomUUID();
+        VectorIndex index = loaded(implementation).index();
+        index.add(List.of(chunk(docA, axis(0)), chunk(docA, axis(1)), chunk(docB, axis(2))));
+
+        index.remove(List.of(docA));
+
+        List<Object[]> rows = index.findTopDocuments(axis(0), 10);
+        assertEquals(1, rows.size());
+        assertEquals(docB, rows.getFirst()[0]);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Implementation.class)
+    void notSelected_neverLoadsOrStores(Implementation implementation) {
+        Subject subject = subject(implementation, false);
+
+        subject.load().run();
+        subject.onInserted().accept(new ChunksInsertedEvent(List.of(chunk(UUID.randomUUID(), axis(0)))));
+
+        assertFalse(subject.index().isEnabled());
+        assertEquals(0, subject.size().getAsInt());
+        verify(chunkRepository, never()).scanEmbeddings(any());
+    }
+
+    // --- Helpers ---
+
+    /** An index under test, with the startup and insert hooks the implementations share. */
+    private record Subject(VectorIndex index, Runnable load, IntSupplier size,
+                           Consumer<ChunksInsertedEvent> onInserted) {}
+
+    private Subject loaded(Implementation implementation) {
+        Subject subject = subject(implementation, true);
+        subject.load().run();
+        return subject;
+    }
+
+    /** A new index of the given kind, selected as the backend (or enabled) when {@code active}. */
+    private Subject subject(Implementation implementation, boolean active) {
+        return switch (implementation) {
+            case HNSW -> {
+                HnswChunkIndex index = new HnswChunkIndex(chunkRepository, transactionManager, ops,
+                        active ? VectorIndex.Backend.HNSW : VectorIndex.Backend.PGVECTOR, 16, 100, 200);
+                yield new Subject(index, index::load, index::size, index::onChunksInserted);
+            }
+            case BRUTE_FORCE -> {
+                BruteForceVectorIndex index = new BruteForceVectorIndex(chunkRepository, transactionManager, ops,
+                        active ? VectorIndex.Backend.BRUTE_FORCE : VectorIndex.Backend.PGVECTOR);
+                yield new Subject(index, index::load, index::size, index::onChunksInserted);
+            }
+            case FLAT -> {
+                flatStore = new FlatVectorStore(chunkRepository, transactionManager, ops, scanExecutor, active,
+                        dir.resolve("vectors.bin"));
+                yield new Subject(flatStore, flatStore::load, flatStore::size, flatStore::onChunksInserted);
+            }
+        };
+    }
+}
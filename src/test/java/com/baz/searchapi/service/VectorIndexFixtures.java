@@ -0,0 +1,45 @@
+package com.baz.searchapi.service;
+
+import com.baz.searchapi.model.entity.Chunk;
+import com.baz.searchapi.model.entity.Document;
+
+import java.util.Random;
+import java.util.UUID;
+
+/** Chunks and 384-dim unit vectors for the {@link VectorIndex} tests. */
+final class VectorIndexFixtures {
+
+    private static final VectorOps OPS = VectorOps.select(false);
+
+    private VectorIndexFixtures() {
+    }
+
+    static Chunk chunk(UUID documentId, float[] embedding) {
+        Document document = new Document();
+        document.setId(documentId);
+        return new Chunk(UUID.randomUUID(), document, 0, "text", embedding);
+    }
+
+    /** The unit vector along dimension {@code i}. */
+    static float[] axis(int i) {
+        float[] v = new float[384];
+        v[i] = 1f;
+        return v;
+    }
+
+    /** The unit vector halfway between dimensions {@code i} and {@code j}. */
+    static float[] mix(int i, int j) {
+        float[] v = new float[384];
+        v[i] = 1f;
+        v[j] = 1f;
+        return OPS.normalize(v);
+    }
+
+    static float[] randomUnit(Random random) {
+        float[] v = new float[384];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return OPS.normalize(v);
+    }
+}
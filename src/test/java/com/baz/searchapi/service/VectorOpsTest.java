@@ -0,0 +1,84 @@
+package com.baz.searchapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorOpsTest {
+
+    private final VectorOps scalar = VectorOps.select(false);
+    private final VectorOps simd = VectorOps.select(true);
+
+    @Test
+    void select_disabled_returnsScalar() {
+        assertFalse(scalar.isSimd());
+    }
+
+    @Test
+    void select_enabled_returnsSimdWhenModuleIsPresent() {
+        // Surefire runs with --add-modules jdk.incubator.vector
+        assertTrue(simd.isSimd());
+    }
+
+    @Test
+    void add_and_divide_matchScalar_includingTailLengths() {
+        Random random = new Random(1);
+        for (int length : new int[]{1, 7, 16, 384, 389}) {
+            float[] v = random(length, random);
+            float[] accScalar = random(length, random);
+            float[] accSimd = accScalar.clone();
+
+            scalar.add(accScalar, v);
+            simd.add(accSimd, v);
+            scalar.divide(accScalar, 3f);
+            simd.divide(accSimd, 3f);
+
+            assertArrayEquals(accScalar, accSimd, "length " + length);
+        }
+    }
+
+    @Test
+    void dot_matchesScalar_withinRounding() {
+        Random random = new Random(2);
+        for (int length : new int[]{1, 7, 16, 384, 389}) {
+            float[] a = random(length, random);
+            float[] b = random(length, random);
+            assertEquals(scalar.dot(a, b), simd.dot(a, b), 1e-3f, "length " + length);
+        }
+    }
+
+    @Test
+    void normalize_returnsUnitLengthCopy() {
+        float[] v = {3f, 4f};
+        float[] unit = simd.normalize(v);
+
+        assertArrayEquals(new float[]{0.6f, 0.8f}, unit, 1e-6f);
+        assertArrayEquals(new float[]{3f, 4f}, v);
+    }
+
+    @Test
+    void normalize_zeroVector_returnedUnchanged() {
+        float[] zero = new float[384];
+        assertSame(zero, simd.normalize(zero));
+    }
+
+    @Test
+    void cosine_ofUnitVectors_equalsDot() {
+        Random random = new Random(3);
+        float[] a = simd.normalize(random(384, random));
+        float[] b = simd.normalize(random(384, random));
+        assertEquals(simd.dot(a, b), simd.cosine(a, b), 1e-5f);
+        assertEquals(1f, scalar.cosine(a, a), 1e-5f);
+        assertEquals(0f, scalar.cosine(a, new float[384]));
+    }
+
+    private static float[] random(int length, Random random) {
+        float[] v = new float[length];
+        for (int i = 0; i < length; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+}